@@ -0,0 +1,32 @@
+package ru.practicum.jdbc;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * СУБД, к которой подключён сервис. Определяется один раз при создании бина;
+ * репозитории выбирают по ней PostgreSQL-специфичный SQL или переносимый вариант для H2.
+ * Регистрируется в приложении через {@code @Import(DatabaseDialect.class)}.
+ */
+public class DatabaseDialect {
+
+    private static final String POSTGRES_PRODUCT_NAME = "PostgreSQL";
+
+    private final boolean postgres;
+
+    public DatabaseDialect(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            this.postgres = POSTGRES_PRODUCT_NAME.equalsIgnoreCase(product);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Cannot determine database product", e);
+        }
+    }
+
+    public boolean isPostgres() {
+        return postgres;
+    }
+}
@@ -2,13 +2,20 @@ package ru.practicum.ewm;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import ru.practicum.client.StatClient;
+import ru.practicum.jdbc.DatabaseDialect;
 
 @SpringBootApplication
 @ComponentScan(basePackages = {"ru.practicum.ewm", "ru.practicum.client"})
 @EnableFeignClients(clients = {StatClient.class})
+@EnableScheduling
+@EnableCaching
+@Import(DatabaseDialect.class)
 public class MainServiceApp {
 
     public static void main(String[] args) {
@@ -3,8 +3,11 @@ package ru.practicum.ewm.category.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @Table(name = "CATEGORIES")
@@ -12,7 +15,8 @@ public class Category {
 
     @Id
     @Column(name = "CATEGORY_ID")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categories_seq")
+    @SequenceGenerator(name = "categories_seq", sequenceName = "CATEGORIES_SEQ", allocationSize = 50)
     private long id;
     @Column(name = "NAME")
     private String name;
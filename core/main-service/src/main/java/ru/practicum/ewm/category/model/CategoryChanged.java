@@ -0,0 +1,7 @@
+package ru.practicum.ewm.category.model;
+
+/**
+ * Публикуется при переименовании или удалении категории.
+ */
+public record CategoryChanged(long categoryId) {
+}
@@ -1,6 +1,8 @@
 package ru.practicum.ewm.category.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -10,11 +12,13 @@ import org.springframework.validation.annotation.Validated;
 import ru.practicum.ewm.category.dto.CategoryDto;
 import ru.practicum.ewm.category.dto.NewCategoryDto;
 import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.model.CategoryChanged;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.NotFoundException;
 import ru.practicum.ewm.category.mapper.CategoryMapper;
 import ru.practicum.ewm.category.repository.CategoryRepository;
 import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.reference.ReferenceDataCache;
 
 import java.util.List;
 
@@ -25,6 +29,8 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final EventRepository eventRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -37,6 +43,8 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryRepository.delete(category);
+        referenceDataCache.evictCategory(categoryId);
+        eventPublisher.publishEvent(new CategoryChanged(categoryId));
     }
 
     @Override
@@ -45,6 +53,7 @@ public class CategoryServiceImpl implements CategoryService {
         validateCategoryNameUnique(dto.getName());
         Category category = CategoryMapper.dtoToCategory(dto);
         Category savedCategory = categoryRepository.save(category);
+        referenceDataCache.evictCategoryPages();
         return CategoryMapper.toCategoryDto(savedCategory);
     }
 
@@ -58,10 +67,13 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         category.setName(dto.getName());
+        referenceDataCache.evictCategory(category.getId());
+        eventPublisher.publishEvent(new CategoryChanged(category.getId()));
         return CategoryMapper.toCategoryDto(category);
     }
 
     @Override
+    @Cacheable(cacheNames = ReferenceDataCache.CATEGORY_PAGES, key = "#from + ':' + #size")
     public List<CategoryDto> getAll(int from, int size) {
         Pageable pageable = PageRequest.of(from / size, size);
         Page<Category> categoriesPage = categoryRepository.findAll(pageable);
@@ -3,11 +3,14 @@ package ru.practicum.ewm.compilation.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.ewm.event.model.Event;
 
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @Table(name = "COMPILATIONS")
@@ -15,7 +18,8 @@ public class Compilation {
 
     @Id
     @Column(name = "COMPILATION_ID")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compilations_seq")
+    @SequenceGenerator(name = "compilations_seq", sequenceName = "COMPILATIONS_SEQ", allocationSize = 50)
     private long id;
     private String title;
     private Boolean pinned;
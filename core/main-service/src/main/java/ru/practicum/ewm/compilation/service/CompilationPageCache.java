@@ -0,0 +1,130 @@
+package ru.practicum.ewm.compilation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.ewm.category.model.CategoryChanged;
+import ru.practicum.ewm.compilation.dto.CompilationDto;
+import ru.practicum.ewm.event.dto.EventShortDto;
+import ru.practicum.ewm.event.model.EventChanged;
+import ru.practicum.ewm.user.model.UserChanged;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static ru.practicum.ewm.config.TransactionCallbacks.afterCommit;
+
+/**
+ * Готовые страницы подборок для публичного API.
+ * Страница сбрасывается, только если изменилась входящая в неё подборка, одно из её событий
+ * или категория либо инициатор такого события; создание, удаление и смена закрепления подборки
+ * сдвигают страницы, поэтому сбрасывают все.
+ * Кэш свой у каждого экземпляра сервиса: изменения, сделанные через другой экземпляр, сюда не доходят,
+ * поэтому страница живёт не дольше page-cache-expire-after.
+ */
+@Component
+public class CompilationPageCache {
+
+    private final Cache<PageKey, List<CompilationDto>> pages;
+    // Обратные индексы могут ссылаться на уже вытесненные страницы: лишний сброс безвреден
+    private final Map<Long, Set<PageKey>> pagesByCompilation = new ConcurrentHashMap<>();
+    private final Map<Long, Set<PageKey>> pagesByEvent = new ConcurrentHashMap<>();
+    private final Map<Long, Set<PageKey>> pagesByCategory = new ConcurrentHashMap<>();
+    private final Map<Long, Set<PageKey>> pagesByUser = new ConcurrentHashMap<>();
+    // Страница, посчитанная до сброса, не должна попасть в кэш после него
+    private final AtomicLong version = new AtomicLong();
+
+    public CompilationPageCache(@Value("${ewm.compilations.page-cache-size:1000}") long maximumSize,
+                                @Value("${ewm.compilations.page-cache-expire-after:5m}") Duration expireAfter) {
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfter)
+                .build();
+    }
+
+    public List<CompilationDto> get(Boolean pinned, int from, int size, Supplier<List<CompilationDto>> loader) {
+        PageKey key = new PageKey(pinned, from, size);
+        List<CompilationDto> page = pages.getIfPresent(key);
+        if (page != null) {
+            return page;
+        }
+
+        long loadedVersion = version.get();
+        page = loader.get();
+        index(key, page);
+        synchronized (this) {
+            if (version.get() == loadedVersion) {
+                pages.put(key, page);
+            }
+        }
+        return page;
+    }
+
+    public void evictCompilation(long compilationId) {
+        afterCommit(() -> evict(pagesByCompilation.get(compilationId)));
+    }
+
+    public void evictAll() {
+        afterCommit(() -> {
+            synchronized (this) {
+                version.incrementAndGet();
+                pages.invalidateAll();
+                pagesByCompilation.clear();
+                pagesByEvent.clear();
+                pagesByCategory.clear();
+                pagesByUser.clear();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChanged eventChanged) {
+        evict(pagesByEvent.get(eventChanged.eventId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChanged categoryChanged) {
+        evict(pagesByCategory.get(categoryChanged.categoryId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChanged userChanged) {
+        evict(pagesByUser.get(userChanged.userId()));
+    }
+
+    private void evict(Set<PageKey> keys) {
+        synchronized (this) {
+            version.incrementAndGet();
+            if (keys != null) {
+                pages.invalidateAll(Set.copyOf(keys));
+            }
+        }
+    }
+
+    private void index(PageKey key, List<CompilationDto> page) {
+        for (CompilationDto compilation : page) {
+            pagesByCompilation.computeIfAbsent(compilation.getId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+            for (EventShortDto event : compilation.getEvents()) {
+                pagesByEvent.computeIfAbsent(event.id(), id -> ConcurrentHashMap.newKeySet()).add(key);
+                if (event.category() != null) {
+                    pagesByCategory.computeIfAbsent(event.category().getId(), id -> ConcurrentHashMap.newKeySet())
+                            .add(key);
+                }
+                if (event.initiator() != null) {
+                    pagesByUser.computeIfAbsent((long) event.initiator().id(), id -> ConcurrentHashMap.newKeySet())
+                            .add(key);
+                }
+            }
+        }
+    }
+
+    private record PageKey(Boolean pinned, int from, int size) {
+    }
+}
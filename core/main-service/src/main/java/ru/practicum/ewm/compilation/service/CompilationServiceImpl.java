@@ -5,7 +5,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.ewm.compilation.dto.*;
 import ru.practicum.ewm.event.dto.EventShortDto;
 import ru.practicum.ewm.compilation.model.Compilation;
@@ -28,17 +31,15 @@ public class CompilationServiceImpl implements CompilationService {
     private final EventRepository eventRepository;
     private final CompilationMapper compilationMapper;
     private final EventMapper eventMapper;
+    private final CompilationPageCache compilationPageCache;
+    private final PlatformTransactionManager transactionManager;
 
+    // Страница из кэша отдаётся без транзакции и соединения с базой
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<CompilationDto> getAll(Boolean pinned, int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
-        Page<Compilation> compilationsPage = (pinned != null)
-                ? compilationRepository.findAllByPinned(pinned, pageable)
-                : compilationRepository.findAll(pageable);
-
-        return compilationsPage.stream()
-                .map(this::mapToCompilationDto)
-                .toList();
+        return compilationPageCache.get(pinned, from, size,
+                () -> readOnlyTransaction().execute(status -> loadPage(pinned, from, size)));
     }
 
     @Override
@@ -54,6 +55,7 @@ public class CompilationServiceImpl implements CompilationService {
             throw new NotFoundException("Compilation with id " + compilationId + " not found");
         }
         compilationRepository.deleteById(compilationId);
+        compilationPageCache.evictAll();
     }
 
     @Override
@@ -62,6 +64,7 @@ public class CompilationServiceImpl implements CompilationService {
         List<Event> events = getEventsByIds(dto.getEvents());
         Compilation compilation = compilationMapper.toCompilation(dto, events);
         Compilation savedCompilation = compilationRepository.save(compilation);
+        compilationPageCache.evictAll();
         return mapToCompilationDto(savedCompilation);
     }
 
@@ -70,8 +73,9 @@ public class CompilationServiceImpl implements CompilationService {
     public CompilationDto updateCompilation(Long id, UpdateCompilationRequestDto dto) {
         Compilation compilation = getCompilationById(id);
 
-        if (dto.getPinned() != null) {
+        if (dto.getPinned() != null && !dto.getPinned().equals(compilation.getPinned())) {
             compilation.setPinned(dto.getPinned());
+            compilationPageCache.evictAll();
         }
 
         if (dto.getTitle() != null && !dto.getTitle().isBlank()) {
@@ -83,9 +87,27 @@ public class CompilationServiceImpl implements CompilationService {
         }
 
         Compilation updatedCompilation = compilationRepository.save(compilation);
+        compilationPageCache.evictCompilation(id);
         return mapToCompilationDto(updatedCompilation);
     }
 
+    private List<CompilationDto> loadPage(Boolean pinned, int from, int size) {
+        Pageable pageable = PageRequest.of(from / size, size);
+        Page<Compilation> compilationsPage = (pinned != null)
+                ? compilationRepository.findAllByPinned(pinned, pageable)
+                : compilationRepository.findAll(pageable);
+
+        return compilationsPage.stream()
+                .map(this::mapToCompilationDto)
+                .toList();
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
     private Compilation getCompilationById(Long id) {
         return compilationRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Compilation with id " + id + " not found"));
@@ -4,11 +4,17 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.ewm.config.Constants;
 import ru.practicum.ewm.event.dto.EventFullDto;
 import ru.practicum.ewm.event.dto.UpdateEventAdminRequest;
 import ru.practicum.ewm.event.model.EventState;
+import ru.practicum.ewm.event.service.EventExportFormat;
+import ru.practicum.ewm.event.service.EventExportService;
 import ru.practicum.ewm.event.service.EventService;
 
 import java.time.LocalDateTime;
@@ -21,6 +27,7 @@ import java.util.List;
 public class AdminEventController {
 
     private final EventService eventService;
+    private final EventExportService eventExportService;
 
     @PatchMapping("{eventId}")
     public EventFullDto update(
@@ -63,4 +70,37 @@ public class AdminEventController {
         return receivedEventSearch;
     }
 
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestHeader(HttpHeaders.ACCEPT) String accept,
+            @RequestParam(required = false) List<Long> users,
+            @RequestParam(required = false) List<EventState> states,
+            @RequestParam(required = false) List<Long> categories,
+            @RequestParam(required = false) @DateTimeFormat(pattern = Constants.JSON_TIME_FORMAT) LocalDateTime rangeStart,
+            @RequestParam(required = false) @DateTimeFormat(pattern = Constants.JSON_TIME_FORMAT) LocalDateTime rangeEnd,
+            @RequestParam(defaultValue = "0") Integer from,
+            @RequestParam(required = false) Integer size
+    ) {
+        EventExportFormat format = EventExportFormat.fromAccept(MediaType.parseMediaTypes(accept))
+                .orElse(EventExportFormat.NDJSON);
+        log.info("==> GET /admin/events Exporting events as {} with params: " +
+                        "users {}, states: {}, categories: {}, rangeStart: {}, rangeEnd: {}, from: {}, size: {}",
+                format, users, states, categories, rangeStart, rangeEnd, from, size);
+        EventSearchParams eventSearchParams = new EventSearchParams();
+        AdminSearchParams adminSearchParams = new AdminSearchParams();
+        adminSearchParams.setUsers(users);
+        adminSearchParams.setStates(states);
+        adminSearchParams.setCategories(categories);
+        adminSearchParams.setRangeStart(rangeStart);
+        adminSearchParams.setRangeEnd(rangeEnd);
+        eventSearchParams.setAdminSearchParams(adminSearchParams);
+        eventSearchParams.setFrom(from);
+        eventSearchParams.setSize(size);
+        StreamingResponseBody body = out -> eventExportService.exportByAdmin(eventSearchParams, format, out);
+        log.info("<== GET /admin/events Streaming export as {}", format);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(body);
+    }
+
 }
@@ -7,15 +7,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.request.controller.PrivateUpdateRequestParams;
 import ru.practicum.ewm.event.dto.EventFullDto;
+import ru.practicum.ewm.event.dto.EventImportResult;
 import ru.practicum.ewm.event.dto.EventShortDto;
 import ru.practicum.ewm.event.dto.NewEventDto;
 import ru.practicum.ewm.event.dto.UpdateEventUserRequest;
 import ru.practicum.ewm.request.dto.EventRequestStatusUpdateRequest;
 import ru.practicum.ewm.request.dto.EventRequestStatusUpdateResult;
 import ru.practicum.ewm.request.dto.ParticipationRequestDto;
+import ru.practicum.ewm.event.service.EventImportService;
 import ru.practicum.ewm.event.service.EventService;
 import ru.practicum.ewm.request.service.RequestService;
 
+import java.io.InputStream;
 import java.util.List;
 
 @Slf4j
@@ -26,6 +29,7 @@ public class PrivateEventController {
 
     private final EventService eventService;
     private final RequestService requestService;
+    private final EventImportService eventImportService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -38,6 +42,15 @@ public class PrivateEventController {
         return receivedEventDto;
     }
 
+    @PostMapping(path = "/bulk", consumes = "application/x-ndjson")
+    public EventImportResult importEvents(@PathVariable long userId, InputStream body) {
+        log.info("==> POST. /users/{userId}/events/bulk Importing events for user with id: {}", userId);
+        EventImportResult result = eventImportService.importEvents(userId, body);
+        log.info("<== POST. /users/{userId}/events/bulk Imported {} of {} events, errors: {}",
+                result.imported(), result.received(), result.errors().size());
+        return result;
+    }
+
     @GetMapping
     public List<EventShortDto> getAll(
             @PathVariable Long userId,
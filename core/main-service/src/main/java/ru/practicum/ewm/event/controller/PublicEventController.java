@@ -1,7 +1,6 @@
 package ru.practicum.ewm.event.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -37,16 +36,29 @@ public class PublicEventController {
             @RequestParam(required = false) @DateTimeFormat(pattern = Constants.JSON_TIME_FORMAT) LocalDateTime rangeStart,
             @RequestParam(required = false) @DateTimeFormat(pattern = Constants.JSON_TIME_FORMAT) LocalDateTime rangeEnd,
             @RequestParam(required = false, defaultValue = "false") Boolean onlyAvailable,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false, defaultValue = "10") Double radius,
             @RequestParam(required = false, defaultValue = "0") Integer from,
             @RequestParam(required = false, defaultValue = "10") Integer size,
             HttpServletRequest httpRequest) {
         log.info("==> GET /events Public searching events with params: " +
-                        "text {}, categories: {}, paid {}, rangeStart: {}, rangeEnd: {}, available {}, from: {}, size: {}",
-                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, from, size);
+                        "text {}, categories: {}, paid {}, rangeStart: {}, rangeEnd: {}, available {}, " +
+                        "lat: {}, lon: {}, radius: {}, from: {}, size: {}",
+                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, lat, lon, radius, from, size);
 
         if (rangeStart != null && rangeEnd != null && rangeStart.isAfter(rangeEnd)) {
             throw new IncorrectValueException("rangeStart of event can't be after rangeEnd");
         }
+        if ((lat == null) != (lon == null)) {
+            throw new IncorrectValueException("lat and lon must be specified together");
+        }
+        if (lat != null && (lat < -90 || lat > 90 || lon < -180 || lon > 180)) {
+            throw new IncorrectValueException("lat must be in [-90, 90] and lon in [-180, 180]");
+        }
+        if (radius <= 0) {
+            throw new IncorrectValueException("radius must be positive");
+        }
 
         EventSearchParams eventSearchParams = new EventSearchParams();
         PublicSearchParams publicSearchParams = new PublicSearchParams();
@@ -56,6 +68,11 @@ public class PublicEventController {
 
         publicSearchParams.setRangeStart(rangeStart);
         publicSearchParams.setRangeEnd(rangeEnd);
+        if (lat != null) {
+            publicSearchParams.setLat(lat);
+            publicSearchParams.setLon(lon);
+            publicSearchParams.setRadius(radius);
+        }
 
         eventSearchParams.setPublicSearchParams(publicSearchParams);
         eventSearchParams.setFrom(from);
@@ -111,7 +128,6 @@ public class PublicEventController {
     }
 
     @GetMapping("/{id}")
-    @Transactional
     public EventFullDto getById(
             @PathVariable Long id, HttpServletRequest httpRequest
     ) {
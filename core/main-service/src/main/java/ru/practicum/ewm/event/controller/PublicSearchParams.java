@@ -14,5 +14,8 @@ public class PublicSearchParams {
     private LocalDateTime rangeStart;
     private LocalDateTime rangeEnd;
     private Boolean onlyAvailable;
+    private Double lat;
+    private Double lon;
+    private Double radius;
 
 }
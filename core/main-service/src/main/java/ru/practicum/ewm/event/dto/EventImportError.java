@@ -0,0 +1,7 @@
+package ru.practicum.ewm.event.dto;
+
+public record EventImportError(
+        int line,
+        String message
+) {
+}
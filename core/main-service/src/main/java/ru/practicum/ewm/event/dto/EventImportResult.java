@@ -0,0 +1,10 @@
+package ru.practicum.ewm.event.dto;
+
+import java.util.List;
+
+public record EventImportResult(
+        int received,
+        int imported,
+        List<EventImportError> errors
+) {
+}
@@ -19,7 +19,8 @@ public class Event {
 
     @Id
     @Column(name = "EVENT_ID")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_seq")
+    @SequenceGenerator(name = "events_seq", sequenceName = "EVENTS_SEQ", allocationSize = 50)
     private long id;
 
     @Column(name = "ANNOTATION")
@@ -0,0 +1,7 @@
+package ru.practicum.ewm.event.model;
+
+/**
+ * Публикуется при изменении события, влияющем на его краткое представление.
+ */
+public record EventChanged(long eventId) {
+}
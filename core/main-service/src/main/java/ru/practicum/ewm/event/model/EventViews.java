@@ -0,0 +1,27 @@
+package ru.practicum.ewm.event.model;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(of = {"eventId"})
+@Table(name = "EVENT_VIEWS")
+public class EventViews {
+
+    @Id
+    @Column(name = "EVENT_ID")
+    private long eventId;
+
+    @Column(name = "VIEWS")
+    private long views;
+
+    public EventViews(long eventId) {
+        this.eventId = eventId;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.ewm.event.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "VIEWS_SYNC_STATE")
+public class ViewsSyncState {
+
+    @Id
+    @Column(name = "NAME")
+    private String name;
+
+    @Column(name = "WATERMARK")
+    private long watermark;
+
+    public ViewsSyncState(String name) {
+        this.name = name;
+    }
+}
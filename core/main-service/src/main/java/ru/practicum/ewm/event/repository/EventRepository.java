@@ -1,28 +1,55 @@
 package ru.practicum.ewm.event.repository;
 
+import com.querydsl.core.types.Predicate;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.like.LikesCountView;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<Event, Long>, QuerydslPredicateExecutor<Event> {
 
+    @Override
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
+    Optional<Event> findById(Long eventId);
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
+    List<Event> findAllById(Iterable<Long> eventIds);
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
+    Page<Event> findAll(Predicate predicate, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
+    Iterable<Event> findAll(Predicate predicate);
+
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
     List<Event> findAllByInitiatorId(long initiatorId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
     Optional<Event> findByInitiatorIdAndId(long initiatorId, long eventId);
 
     @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "LIKES_EVENTS"))
     @Transactional
     @Query(value = "INSERT INTO LIKES_EVENTS (USER_ID, EVENT_ID) values (:userId, :eventId)", nativeQuery = true)
     void addLike(Long userId, Long eventId);
 
     @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "LIKES_EVENTS"))
     @Transactional
     @Query(value = "DELETE FROM LIKES_EVENTS WHERE USER_ID = :userId AND EVENT_ID = :eventId", nativeQuery = true)
     void deleteLike(Long userId, Long eventId);
@@ -35,13 +62,11 @@ public interface EventRepository extends JpaRepository<Event, Long>, QuerydslPre
     @Query(value = "SELECT COUNT(*) FROM LIKES_EVENTS WHERE EVENT_ID = :eventId", nativeQuery = true)
     long countLikesByEventId(Long eventId);
 
-    @Query(value = """
-                SELECT E.*, RATE.LIKES FROM EVENTS E LEFT JOIN (
-                SELECT EVENT_ID, COUNT(*) AS LIKES FROM LIKES_EVENTS
-                GROUP BY EVENT_ID) AS RATE ON E.EVENT_ID = RATE.EVENT_ID
-                ORDER BY RATE.LIKES DESC NULLS LAST
-                LIMIT :count""", nativeQuery = true)
-    List<Event> findTop(Integer count);
+    @Query(value = "SELECT EVENT_ID AS ID, COUNT(*) AS LIKES FROM LIKES_EVENTS GROUP BY EVENT_ID", nativeQuery = true)
+    List<LikesCountView> countLikes();
+
+    @Query("select e.id from Event e order by e.id")
+    List<Long> findIds(Pageable pageable);
 
     boolean existsByCategoryId(long categoryId);
 }
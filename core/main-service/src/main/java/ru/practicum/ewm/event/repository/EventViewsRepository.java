@@ -0,0 +1,12 @@
+package ru.practicum.ewm.event.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.ewm.event.model.EventViews;
+
+import java.util.List;
+
+public interface EventViewsRepository extends JpaRepository<EventViews, Long> {
+
+    List<EventViews> findAllByOrderByViewsDesc(Pageable pageable);
+}
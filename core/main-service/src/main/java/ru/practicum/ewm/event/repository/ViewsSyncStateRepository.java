@@ -0,0 +1,17 @@
+package ru.practicum.ewm.event.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.ewm.event.model.ViewsSyncState;
+
+import java.util.Optional;
+
+public interface ViewsSyncStateRepository extends JpaRepository<ViewsSyncState, String> {
+
+    // SELECT ... FOR UPDATE: второй экземпляр ждёт фиксации и видит уже сдвинутый водяной знак
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ViewsSyncState s where s.name = :name")
+    Optional<ViewsSyncState> findForUpdate(String name);
+}
@@ -0,0 +1,32 @@
+package ru.practicum.ewm.event.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.Optional;
+
+@Getter
+@RequiredArgsConstructor
+public enum EventExportFormat {
+
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(new MediaType("text", "csv"));
+
+    private final MediaType mediaType;
+
+    /**
+     * Первый формат из заголовка Accept, который умеет отдавать экспорт.
+     */
+    public static Optional<EventExportFormat> fromAccept(List<MediaType> accepted) {
+        for (MediaType mediaType : accepted) {
+            for (EventExportFormat format : values()) {
+                if (!mediaType.isWildcardType() && format.mediaType.isCompatibleWith(mediaType)) {
+                    return Optional.of(format);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+}
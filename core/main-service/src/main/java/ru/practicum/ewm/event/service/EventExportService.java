@@ -0,0 +1,16 @@
+package ru.practicum.ewm.event.service;
+
+import ru.practicum.ewm.event.controller.EventSearchParams;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface EventExportService {
+
+    /**
+     * Потоково выгружает результат админского поиска событий в указанном формате.
+     * Строки читаются курсором и пишутся в поток по мере чтения, весь результат в памяти не собирается.
+     * Если size не задан, выгружаются все подходящие события.
+     */
+    void exportByAdmin(EventSearchParams searchParams, EventExportFormat format, OutputStream out) throws IOException;
+}
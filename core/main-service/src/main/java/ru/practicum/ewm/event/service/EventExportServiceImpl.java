@@ -0,0 +1,235 @@
+package ru.practicum.ewm.event.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.config.Constants;
+import ru.practicum.ewm.event.controller.EventSearchParams;
+import ru.practicum.ewm.event.dto.EventFullDto;
+import ru.practicum.ewm.event.mapper.EventMapper;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.like.LikeCounters;
+import ru.practicum.ewm.like.LikeTarget;
+import ru.practicum.ewm.request.model.RequestStatus;
+import ru.practicum.ewm.request.repository.RequestRepository;
+import ru.practicum.ewm.request.repository.RequestsCountView;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static ru.practicum.ewm.event.model.QEvent.event;
+
+@Slf4j
+@Service
+public class EventExportServiceImpl implements EventExportService {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(Constants.JSON_TIME_FORMAT);
+    private static final String CSV_HEADER = "id,title,annotation,category_id,category_name,initiator_id," +
+            "initiator_name,state,event_date,created_on,published_on,paid,participant_limit," +
+            "request_moderation,lat,lon,confirmed_requests,likes";
+
+    private final EntityManager entityManager;
+    private final EventMapper eventMapper;
+    private final RequestRepository requestRepository;
+    private final LikeCounters likeCounters;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter eventWriter;
+    private final int fetchSize;
+
+    public EventExportServiceImpl(EntityManager entityManager,
+                                  EventMapper eventMapper,
+                                  RequestRepository requestRepository,
+                                  LikeCounters likeCounters,
+                                  ObjectMapper objectMapper,
+                                  @Value("${ewm.events.export-fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.eventMapper = eventMapper;
+        this.requestRepository = requestRepository;
+        this.likeCounters = likeCounters;
+        this.objectMapper = objectMapper;
+        this.eventWriter = objectMapper.writerFor(EventFullDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportByAdmin(EventSearchParams searchParams, EventExportFormat format, OutputStream out)
+            throws IOException {
+        JPAQuery<Event> query = new JPAQuery<Event>(entityManager)
+                .select(event)
+                .from(event)
+                .innerJoin(event.category).fetchJoin()
+                .innerJoin(event.initiator).fetchJoin()
+                .innerJoin(event.location).fetchJoin()
+                .where(EventServiceImpl.buildAdminSearchExpression(searchParams))
+                .orderBy(event.id.asc());
+        // Без size выгружается весь результат, иначе та же страница, что и в обычном JSON-ответе
+        if (searchParams.getSize() != null) {
+            query.offset((long) searchParams.getFrom() * searchParams.getSize())
+                    .limit(searchParams.getSize());
+        }
+
+        long exported = 0;
+        try (RowWriter writer = format == EventExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+             @SuppressWarnings("unchecked")
+             Stream<Event> events = query.createQuery()
+                     .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                     .setHint(HibernateHints.HINT_READ_ONLY, true)
+                     .getResultStream()) {
+            List<Event> chunk = new ArrayList<>(fetchSize);
+            Iterator<Event> iterator = events.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == fetchSize) {
+                    exported += writeChunk(chunk, writer);
+                }
+            }
+            exported += writeChunk(chunk, writer);
+        }
+        log.info("Exported {} events as {}", exported, format);
+    }
+
+    // Заявки и лайки считаются одним запросом на порцию, после записи порция вытесняется из контекста персистентности
+    private int writeChunk(List<Event> chunk, RowWriter writer) throws IOException {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        List<Long> eventIds = chunk.stream().map(Event::getId).toList();
+        Map<Long, Long> confirmed = requestRepository.countByStatusAndEventIds(RequestStatus.CONFIRMED, eventIds)
+                .stream()
+                .collect(Collectors.toMap(RequestsCountView::getEventId, RequestsCountView::getRequests));
+        Map<Long, Long> likes = likeCounters.getLikes(LikeTarget.EVENT, eventIds);
+
+        for (Event item : chunk) {
+            item.setConfirmedRequests(confirmed.getOrDefault(item.getId(), 0L));
+            item.setLikes(likes.getOrDefault(item.getId(), 0L));
+            writer.write(eventMapper.eventToEventFullDto(item));
+        }
+        writer.flush();
+
+        int written = chunk.size();
+        chunk.clear();
+        entityManager.clear();
+        return written;
+    }
+
+    private interface RowWriter extends AutoCloseable {
+
+        void write(EventFullDto dto) throws IOException;
+
+        void flush() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Строки разделяются переводом строки, пробел между корневыми значениями не нужен
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(EventFullDto dto) throws IOException {
+            eventWriter.writeValue(generator, dto);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(EventFullDto dto) throws IOException {
+            writer.write(String.join(",",
+                    String.valueOf(dto.id()),
+                    escape(dto.title()),
+                    escape(dto.annotation()),
+                    String.valueOf(dto.category().getId()),
+                    escape(dto.category().getName()),
+                    String.valueOf(dto.initiator().id()),
+                    escape(dto.initiator().name()),
+                    String.valueOf(dto.state()),
+                    format(dto.eventDate()),
+                    format(dto.createdOn()),
+                    format(dto.publishedOn()),
+                    String.valueOf(dto.paid()),
+                    String.valueOf(dto.participantLimit()),
+                    String.valueOf(dto.requestModeration()),
+                    String.valueOf(dto.location().getLat()),
+                    String.valueOf(dto.location().getLon()),
+                    String.valueOf(dto.confirmedRequests()),
+                    String.valueOf(dto.likesCount())));
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        // Поток ответа закрывает контейнер, здесь только сбрасывается буфер
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+        private static String format(LocalDateTime dateTime) {
+            return dateTime == null ? "" : dateTime.format(DATE_TIME_FORMATTER);
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
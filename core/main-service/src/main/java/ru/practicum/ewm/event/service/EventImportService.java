@@ -0,0 +1,14 @@
+package ru.practicum.ewm.event.service;
+
+import ru.practicum.ewm.event.dto.EventImportResult;
+
+import java.io.InputStream;
+
+public interface EventImportService {
+
+    /**
+     * Импортирует события пользователя из NDJSON: по одному NewEventDto на строку.
+     * Ошибочные строки пропускаются и перечисляются в результате.
+     */
+    EventImportResult importEvents(long userId, InputStream ndjson);
+}
@@ -0,0 +1,173 @@
+package ru.practicum.ewm.event.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.event.dto.EventImportError;
+import ru.practicum.ewm.event.dto.EventImportResult;
+import ru.practicum.ewm.event.dto.NewEventDto;
+import ru.practicum.ewm.event.mapper.EventMapper;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.exception.IncorrectValueException;
+import ru.practicum.ewm.exception.NotFoundException;
+import ru.practicum.ewm.location.service.LocationInterner;
+import ru.practicum.ewm.reference.ReferenceDataCache;
+import ru.practicum.ewm.user.model.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class EventImportServiceImpl implements EventImportService {
+
+    private final EventRepository eventRepository;
+    private final EventMapper eventMapper;
+    private final LocationInterner locationInterner;
+    private final ReferenceDataCache referenceDataCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader newEventReader;
+    private final int chunkSize;
+
+    public EventImportServiceImpl(EventRepository eventRepository,
+                                  EventMapper eventMapper,
+                                  LocationInterner locationInterner,
+                                  ReferenceDataCache referenceDataCache,
+                                  TransactionTemplate transactionTemplate,
+                                  Validator validator,
+                                  ObjectMapper objectMapper,
+                                  @Value("${ewm.events.import-chunk-size:500}") int chunkSize) {
+        this.eventRepository = eventRepository;
+        this.eventMapper = eventMapper;
+        this.locationInterner = locationInterner;
+        this.referenceDataCache = referenceDataCache;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.newEventReader = objectMapper.readerFor(NewEventDto.class);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public EventImportResult importEvents(long userId, InputStream ndjson) {
+        User initiator = referenceDataCache.findUser(userId)
+                .orElseThrow(() -> new NotFoundException("User with id " + userId + " not found"));
+
+        List<EventImportError> errors = new ArrayList<>();
+        List<Item> chunk = new ArrayList<>(chunkSize);
+        int received = 0;
+        int imported = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                received++;
+                try {
+                    chunk.add(new Item(lineNumber, parse(line)));
+                } catch (IncorrectValueException | NotFoundException e) {
+                    errors.add(new EventImportError(lineNumber, e.getMessage()));
+                }
+                if (chunk.size() == chunkSize) {
+                    imported += saveChunk(initiator, chunk, errors);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read events from request body", e);
+        }
+        imported += saveChunk(initiator, chunk, errors);
+        errors.sort(Comparator.comparingInt(EventImportError::line));
+
+        log.info("Imported {} of {} events for user {}", imported, received, userId);
+        return new EventImportResult(received, imported, errors);
+    }
+
+    private ParsedEvent parse(String line) {
+        NewEventDto dto;
+        try {
+            dto = newEventReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IncorrectValueException("Malformed JSON: " + e.getOriginalMessage());
+        }
+
+        Set<ConstraintViolation<NewEventDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new IncorrectValueException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        if (dto.category() == null) {
+            throw new IncorrectValueException("category: must not be null");
+        }
+        Category category = referenceDataCache.findCategory(dto.category())
+                .orElseThrow(() -> new NotFoundException("Category with id " + dto.category() + " not found"));
+        return new ParsedEvent(dto, category);
+    }
+
+    // Чанк пишется одной транзакцией пакетными вставками; при ошибке строки чанка повторяются по одной
+    private int saveChunk(User initiator, List<Item> chunk, List<EventImportError> errors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> eventRepository.saveAll(chunk.stream()
+                    .map(item -> toEvent(initiator, item.event()))
+                    .toList()));
+            return chunk.size();
+        } catch (RuntimeException e) {
+            log.warn("Failed to save chunk of {} events, retrying one by one: {}", chunk.size(), e.getMessage());
+        }
+
+        int saved = 0;
+        for (Item item : chunk) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        eventRepository.save(toEvent(initiator, item.event())));
+                saved++;
+            } catch (RuntimeException e) {
+                errors.add(new EventImportError(item.line(), e.getMessage()));
+            }
+        }
+        return saved;
+    }
+
+    private Event toEvent(User initiator, ParsedEvent parsed) {
+        return eventMapper.newEventDtoToEvent(
+                parsed.dto(),
+                initiator,
+                parsed.category(),
+                locationInterner.intern(parsed.dto().location()),
+                LocalDateTime.now()
+        );
+    }
+
+    private record ParsedEvent(NewEventDto dto, Category category) {
+    }
+
+    private record Item(int line, ParsedEvent event) {
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.ewm.event.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.like.LikesCountView;
+import ru.practicum.ewm.like.LikesLeaderboard;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class EventLikesLeaderboard extends LikesLeaderboard {
+
+    private final EventRepository eventRepository;
+
+    @Override
+    protected List<LikesCountView> loadLikes() {
+        return eventRepository.countLikes();
+    }
+}
@@ -1,8 +1,13 @@
 package ru.practicum.ewm.event.service;
 
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.MathExpressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -11,20 +16,23 @@ import ru.practicum.HitDto;
 import ru.practicum.HitStatDto;
 import ru.practicum.client.StatClient;
 import ru.practicum.ewm.category.model.Category;
-import ru.practicum.ewm.category.repository.CategoryRepository;
 import ru.practicum.ewm.config.Constants;
 import ru.practicum.ewm.event.controller.*;
 import ru.practicum.ewm.event.dto.*;
 import ru.practicum.ewm.event.model.*;
 import ru.practicum.ewm.event.repository.EventRepository;
 import ru.practicum.ewm.exception.*;
+import ru.practicum.ewm.like.LikeCounters;
+import ru.practicum.ewm.like.LikeTarget;
+import ru.practicum.ewm.location.model.GeoGrid;
 import ru.practicum.ewm.location.model.Location;
-import ru.practicum.ewm.location.repository.LocationRepository;
+import ru.practicum.ewm.location.service.LocationGridIndex;
+import ru.practicum.ewm.location.service.LocationInterner;
 import ru.practicum.ewm.event.mapper.EventMapper;
+import ru.practicum.ewm.reference.ReferenceDataCache;
 import ru.practicum.ewm.request.model.RequestStatus;
 import ru.practicum.ewm.request.repository.RequestRepository;
 import ru.practicum.ewm.user.model.User;
-import ru.practicum.ewm.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -36,26 +44,34 @@ import static ru.practicum.ewm.event.model.QEvent.event;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional(readOnly = true)
 public class EventServiceImpl implements EventService {
 
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(Constants.JSON_TIME_FORMAT);
     private static final int MIN_HOURS_BEFORE_EVENT = 2;
+    private static final int MAX_NEARBY_LOCATION_IDS = 10000;
+    private static final double DEGREE_IN_RADIANS = Math.PI / 180;
+    private static final double HALF_DEGREE_IN_RADIANS = DEGREE_IN_RADIANS / 2;
 
     private final EventRepository eventRepository;
-    private final UserRepository userRepository;
     private final EventMapper eventMapper;
-    private final LocationRepository locationRepository;
-    private final CategoryRepository categoryRepository;
     private final RequestRepository requestRepository;
     private final StatClient statClient;
+    private final EventViewsCache eventViewsCache;
+    private final EventViewsService eventViewsService;
+    private final EventLikesLeaderboard eventLikesLeaderboard;
+    private final LikeCounters likeCounters;
+    private final LocationGridIndex locationGridIndex;
+    private final LocationInterner locationInterner;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     @Override
     @Transactional
     public EventFullDto create(long userId, NewEventDto newEventDto) {
         User initiator = getUserById(userId);
         Category category = getCategoryById(newEventDto.category());
-        Location location = locationRepository.save(newEventDto.location());
+        Location location = locationInterner.intern(newEventDto.location());
 
         Event event = eventMapper.newEventDtoToEvent(
                 newEventDto,
@@ -90,12 +106,13 @@ public class EventServiceImpl implements EventService {
         PublicSearchParams publicSearchParams = searchParams.getPublicSearchParams();
 
         BooleanExpression booleanExpression = buildPublicSearchExpression(publicSearchParams);
-        LocalDateTime[] dateRange = determineDateRange(publicSearchParams);
 
-        List<Event> eventListBySearch = eventRepository.findAll(booleanExpression, page).stream().toList();
+        List<Event> eventListBySearch = publicSearchParams.getLat() != null
+                ? findNearby(booleanExpression, publicSearchParams, page)
+                : eventRepository.findAll(booleanExpression, page).getContent();
         statClient.saveHit(hitDto);
 
-        enrichEventsWithStatsAndRequests(eventListBySearch, dateRange[0], dateRange[1]);
+        enrichEventsWithStatsAndRequests(eventListBySearch);
 
         return eventListBySearch.stream()
                 .map(eventMapper::eventToEventShortDto)
@@ -104,13 +121,16 @@ public class EventServiceImpl implements EventService {
 
     @Override
     public List<EventShortDto> getTopEvent(Integer count, HitDto hitDto) {
-        String rangeEnd = LocalDateTime.now().format(DATE_TIME_FORMATTER);
-        String rangeStart = LocalDateTime.now().minusYears(100).format(DATE_TIME_FORMATTER);
-
-        List<Event> eventListBySearch = eventRepository.findTop(count);
+        List<Long> topEventIds = getTopEventIdsByLikes(count);
+        Map<Long, Event> eventMap = eventRepository.findAllById(topEventIds).stream()
+                .collect(Collectors.toMap(Event::getId, e -> e));
+        List<Event> eventListBySearch = topEventIds.stream()
+                .map(eventMap::get)
+                .filter(Objects::nonNull)
+                .toList();
         statClient.saveHit(hitDto);
 
-        enrichEventsWithStatsAndRequests(eventListBySearch, rangeStart, rangeEnd);
+        enrichEventsWithStatsAndRequests(eventListBySearch);
 
         return eventListBySearch.stream()
                 .map(eventMapper::eventToEventShortDto)
@@ -119,6 +139,13 @@ public class EventServiceImpl implements EventService {
 
     @Override
     public List<EventShortDto> getTopViewEvent(Integer count, HitDto hitDto) {
+        if (eventViewsService.isReplicated()) {
+            statClient.saveHit(hitDto);
+            return getTopEventsByViews(eventViewsService.getTop(count), count).stream()
+                    .map(eventMapper::eventToEventShortDto)
+                    .toList();
+        }
+
         String rangeEnd = LocalDateTime.now().format(DATE_TIME_FORMATTER);
         String rangeStart = LocalDateTime.now().minusYears(100).format(DATE_TIME_FORMATTER);
 
@@ -136,6 +163,7 @@ public class EventServiceImpl implements EventService {
                         dto -> Long.parseLong(dto.getUri().replace("/events/", "")),
                         Collectors.summingLong(HitStatDto::getHits)
                 ));
+        eventViewsCache.putAll(eventsViews);
 
         List<Event> topEvents = getTopEventsByViews(eventsViews, count);
         return topEvents.stream()
@@ -148,7 +176,7 @@ public class EventServiceImpl implements EventService {
         Pageable page = PageRequest.of(searchParams.getFrom(), searchParams.getSize());
         BooleanExpression booleanExpression = buildAdminSearchExpression(searchParams);
 
-        List<Event> receivedEventList = eventRepository.findAll(booleanExpression, page).stream().toList();
+        List<Event> receivedEventList = eventRepository.findAll(booleanExpression, page).getContent();
         enrichEventsWithAdditionalData(receivedEventList);
 
         return receivedEventList.stream()
@@ -162,7 +190,8 @@ public class EventServiceImpl implements EventService {
 
         if (params.initiatorId() == null) {
             statClient.saveHit(hitDto);
-            enrichEventWithStatsAndRequests(receivedEvent, "", "");
+            enrichEventsWithAdditionalData(List.of(receivedEvent));
+            receivedEvent.setViews(eventViewsCache.getViewsAndRefresh(receivedEvent.getId()));
         }
 
         return eventMapper.eventToEventFullDto(receivedEvent);
@@ -176,13 +205,15 @@ public class EventServiceImpl implements EventService {
 
         if (updateParams.updateEventUserRequest() != null) {
             updatedEvent = processUserUpdate(event, updateParams);
+            eventPublisher.publishEvent(new EventChanged(eventId));
         } else if (updateParams.updateEventAdminRequest() != null) {
             updatedEvent = processAdminUpdate(event, updateParams);
+            eventPublisher.publishEvent(new EventChanged(eventId));
         } else {
             updatedEvent = event;
         }
 
-        updatedEvent.setLikes(eventRepository.countLikesByEventId(updatedEvent.getId()));
+        updatedEvent.setLikes(likeCounters.getLikes(LikeTarget.EVENT, updatedEvent.getId()));
         return eventMapper.eventToEventFullDto(updatedEvent);
     }
 
@@ -195,7 +226,8 @@ public class EventServiceImpl implements EventService {
         validateEventIsPublished(event);
         eventRepository.addLike(userId, eventId);
 
-        event.setLikes(eventRepository.countLikesByEventId(eventId));
+        event.setLikes(likeCounters.addLike(LikeTarget.EVENT, eventId));
+        eventLikesLeaderboard.addLikesAfterCommit(eventId, 1);
         return eventMapper.eventToEventShortDto(event);
     }
 
@@ -210,15 +242,17 @@ public class EventServiceImpl implements EventService {
         }
 
         eventRepository.deleteLike(userId, eventId);
+        likeCounters.removeLike(LikeTarget.EVENT, eventId);
+        eventLikesLeaderboard.addLikesAfterCommit(eventId, -1);
     }
 
     private User getUserById(long userId) {
-        return userRepository.findById(userId)
+        return referenceDataCache.findUser(userId)
                 .orElseThrow(() -> new NotFoundException("User with id " + userId + " not found"));
     }
 
     private Category getCategoryById(long categoryId) {
-        return categoryRepository.findById(categoryId)
+        return referenceDataCache.findCategory(categoryId)
                 .orElseThrow(() -> new NotFoundException("Category with id " + categoryId + " not found"));
     }
 
@@ -248,22 +282,57 @@ public class EventServiceImpl implements EventService {
         return expression;
     }
 
-    private LocalDateTime[] determineDateRange(PublicSearchParams params) {
-        LocalDateTime rangeStart = params.getRangeStart();
-        LocalDateTime rangeEnd = params.getRangeEnd();
-
-        if (rangeStart != null && rangeEnd != null) {
-            return new LocalDateTime[]{rangeStart, rangeEnd};
-        } else if (rangeStart != null) {
-            return new LocalDateTime[]{rangeStart, rangeStart.plusYears(100)};
-        } else if (rangeEnd != null) {
-            return new LocalDateTime[]{LocalDateTime.now(), rangeEnd};
+    // Кандидаты отбираются по ячейкам сетки (индекс по CELL) или по сетке в памяти, затем уточняются по расстоянию
+    private List<Event> findNearby(BooleanExpression expression, PublicSearchParams params, Pageable page) {
+        double lat = params.getLat();
+        double lon = params.getLon();
+        double radius = params.getRadius();
+
+        Set<Long> locationIds = locationGridIndex.isAvailable()
+                ? locationGridIndex.findWithin(lat, lon, radius)
+                : null;
+        if (locationIds != null && locationIds.isEmpty()) {
+            return List.of();
+        }
+        if (locationIds != null && locationIds.size() <= MAX_NEARBY_LOCATION_IDS) {
+            expression = expression.and(event.location.id.in(locationIds));
         } else {
-            return new LocalDateTime[]{LocalDateTime.now(), LocalDateTime.now().plusYears(100)};
+            GeoGrid.BoundingBox box = GeoGrid.boundingBox(lat, lon, radius);
+            expression = expression.and(event.location.lat.between((float) box.minLat(), (float) box.maxLat()));
+            List<Long> cells = GeoGrid.cellsWithin(lat, lon, radius);
+            if (!cells.isEmpty()) {
+                expression = expression.and(event.location.cell.in(cells));
+            }
         }
+
+        // Гаверсинус растёт вместе с расстоянием, поэтому и отсечение по радиусу, и сортировка, и страница - в SQL
+        NumberExpression<Double> haversine = haversine(lat, lon);
+        return new JPAQuery<Event>(entityManager)
+                .select(event)
+                .from(event)
+                .innerJoin(event.category).fetchJoin()
+                .innerJoin(event.initiator).fetchJoin()
+                .innerJoin(event.location).fetchJoin()
+                .where(expression.and(haversine.loe(GeoGrid.haversineWithin(radius))))
+                .orderBy(haversine.asc(), event.id.asc())
+                .offset(page.getOffset())
+                .limit(page.getPageSize())
+                .fetch();
+    }
+
+    // То же выражение, что в GeoGrid.distanceKm, до взятия арксинуса
+    private static NumberExpression<Double> haversine(double lat, double lon) {
+        NumberExpression<Double> sinHalfLat = MathExpressions.sin(
+                event.location.lat.subtract(lat).multiply(HALF_DEGREE_IN_RADIANS));
+        NumberExpression<Double> sinHalfLon = MathExpressions.sin(
+                event.location.lon.subtract(lon).multiply(HALF_DEGREE_IN_RADIANS));
+        return sinHalfLat.multiply(sinHalfLat)
+                .add(sinHalfLon.multiply(sinHalfLon)
+                        .multiply(MathExpressions.cos(event.location.lat.multiply(DEGREE_IN_RADIANS)))
+                        .multiply(Math.cos(Math.toRadians(lat))));
     }
 
-    private BooleanExpression buildAdminSearchExpression(EventSearchParams searchParams) {
+    static BooleanExpression buildAdminSearchExpression(EventSearchParams searchParams) {
         BooleanExpression expression = event.isNotNull();
         AdminSearchParams adminParams = searchParams.getAdminSearchParams();
 
@@ -297,39 +366,32 @@ public class EventServiceImpl implements EventService {
         events.forEach(event -> {
             event.setConfirmedRequests(
                     requestRepository.countByStatusAndEventId(RequestStatus.CONFIRMED, event.getId()));
-            event.setLikes(eventRepository.countLikesByEventId(event.getId()));
+            event.setLikes(likeCounters.getLikes(LikeTarget.EVENT, event.getId()));
         });
     }
 
-    private void enrichEventsWithStatsAndRequests(List<Event> events, LocalDateTime rangeStart, LocalDateTime rangeEnd) {
-        enrichEventsWithStatsAndRequests(
-                events,
-                rangeStart.format(DATE_TIME_FORMATTER),
-                rangeEnd.format(DATE_TIME_FORMATTER)
-        );
-    }
+    // Сначала все обращения к БД, затем просмотры из кэша: соединение с базой к этому моменту уже возвращено в пул
+    private void enrichEventsWithStatsAndRequests(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        enrichEventsWithAdditionalData(events);
 
-    private void enrichEventsWithStatsAndRequests(List<Event> events, String rangeStart, String rangeEnd) {
-        events.forEach(event -> {
-            enrichEventWithStatsAndRequests(event, rangeStart, rangeEnd);
-        });
+        Map<Long, Long> eventsViews = eventViewsCache.getViews(events.stream().map(Event::getId).toList());
+        events.forEach(event -> event.setViews(eventsViews.getOrDefault(event.getId(), 0L)));
     }
 
-    private void enrichEventWithStatsAndRequests(Event event, String rangeStart, String rangeEnd) {
-        List<HitStatDto> hitStatDtoList = statClient.getStats(
-                rangeStart,
-                rangeEnd,
-                List.of("/events/" + event.getId()),
-                true);
-
-        long views = hitStatDtoList.stream()
-                .mapToLong(HitStatDto::getHits)
-                .sum();
-
-        event.setViews(views);
-        event.setConfirmedRequests(
-                requestRepository.countByStatusAndEventId(RequestStatus.CONFIRMED, event.getId()));
-        event.setLikes(eventRepository.countLikesByEventId(event.getId()));
+    // События без лайков добирают список до нужного размера, как это делал прежний запрос с NULLS LAST
+    private List<Long> getTopEventIdsByLikes(int count) {
+        List<Long> topEventIds = new ArrayList<>(eventLikesLeaderboard.getTopIds(count));
+        if (topEventIds.size() < count) {
+            Set<Long> rankedIds = new HashSet<>(topEventIds);
+            eventRepository.findIds(PageRequest.of(0, count + topEventIds.size())).stream()
+                    .filter(id -> !rankedIds.contains(id))
+                    .limit(count - topEventIds.size())
+                    .forEach(topEventIds::add);
+        }
+        return topEventIds;
     }
 
     private List<Event> getTopEventsByViews(Map<Long, Long> eventsViews, int limit) {
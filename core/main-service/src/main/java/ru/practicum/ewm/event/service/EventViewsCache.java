@@ -0,0 +1,143 @@
+package ru.practicum.ewm.event.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.client.StatClient;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш просмотров событий по схеме stale-while-revalidate.
+ * Устаревшие значения отдаются сразу и обновляются пачками в фоне,
+ * при недоступности stats-server используется последнее известное значение: оно кэшируется на failure-ttl,
+ * чтобы запросы в это время не ждали таймаута Feign на каждом промахе.
+ */
+@Slf4j
+@Component
+public class EventViewsCache {
+
+    private static final String EVENT_URI_PREFIX = "/events/";
+
+    private final StatClient statClient;
+    private final Cache<Long, CachedViews> cache;
+    private final Set<Long> staleEventIds = ConcurrentHashMap.newKeySet();
+    private final long refreshAfterNanos;
+    private final long failureTtlNanos;
+    private final int batchSize;
+
+    public EventViewsCache(StatClient statClient,
+                           @Value("${ewm.views-cache.maximum-size:100000}") long maximumSize,
+                           @Value("${ewm.views-cache.refresh-after:30s}") Duration refreshAfter,
+                           @Value("${ewm.views-cache.expire-after:1h}") Duration expireAfter,
+                           @Value("${ewm.views-cache.failure-ttl:5s}") Duration failureTtl,
+                           @Value("${ewm.views-cache.batch-size:100}") int batchSize) {
+        this.statClient = statClient;
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.failureTtlNanos = Math.min(failureTtl.toNanos(), refreshAfterNanos);
+        this.batchSize = batchSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfter)
+                .recordStats()
+                .build();
+    }
+
+    public Map<Long, Long> getViews(Collection<Long> eventIds) {
+        Map<Long, Long> views = new HashMap<>();
+        List<Long> missingEventIds = new ArrayList<>();
+        long now = System.nanoTime();
+
+        for (Long eventId : eventIds) {
+            CachedViews cached = cache.getIfPresent(eventId);
+            if (cached == null) {
+                missingEventIds.add(eventId);
+                continue;
+            }
+            if (now - cached.loadedAt() > refreshAfterNanos) {
+                staleEventIds.add(eventId);
+            }
+            views.put(eventId, cached.views());
+        }
+
+        if (!missingEventIds.isEmpty()) {
+            views.putAll(load(missingEventIds));
+        }
+        return views;
+    }
+
+    /**
+     * Просмотры для страницы события: значение из кэша отдаётся без обращения к stats-server,
+     * а событие ставится в очередь фонового обновления, чтобы только что записанный просмотр
+     * появился при следующих чтениях. Синхронно загружается только отсутствующее в кэше событие.
+     */
+    public long getViewsAndRefresh(long eventId) {
+        CachedViews cached = cache.getIfPresent(eventId);
+        if (cached == null) {
+            return load(List.of(eventId)).getOrDefault(eventId, 0L);
+        }
+        staleEventIds.add(eventId);
+        return cached.views();
+    }
+
+    public void putAll(Map<Long, Long> eventsViews) {
+        long now = System.nanoTime();
+        eventsViews.forEach((eventId, views) -> cache.put(eventId, new CachedViews(views, now)));
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.views-cache.refresh-interval:5s}")
+    public void refreshStale() {
+        while (!staleEventIds.isEmpty()) {
+            List<Long> batch = new ArrayList<>(batchSize);
+            Iterator<Long> iterator = staleEventIds.iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            log.debug("Refreshing views for {} events", batch.size());
+            load(batch);
+        }
+    }
+
+    private Map<Long, Long> load(List<Long> eventIds) {
+        List<String> uris = eventIds.stream()
+                .map(eventId -> EVENT_URI_PREFIX + eventId)
+                .toList();
+
+        Map<Long, Long> views = new HashMap<>();
+        try {
+            statClient.getStats("", "", uris, true).forEach(dto -> views.merge(
+                    Long.parseLong(dto.getUri().substring(EVENT_URI_PREFIX.length())),
+                    dto.getHits().longValue(),
+                    Long::sum));
+        } catch (RuntimeException e) {
+            log.warn("Stats server is unavailable, using last known views for events {}: {}",
+                    eventIds, e.getMessage());
+            // Запасное значение устаревает через failure-ttl, а не через refresh-after
+            long fallbackLoadedAt = System.nanoTime() - refreshAfterNanos + failureTtlNanos;
+            eventIds.forEach(eventId -> {
+                CachedViews cached = cache.getIfPresent(eventId);
+                long eventViews = cached != null ? cached.views() : 0L;
+                views.put(eventId, eventViews);
+                cache.put(eventId, new CachedViews(eventViews, fallbackLoadedAt));
+            });
+            return views;
+        }
+
+        long now = System.nanoTime();
+        eventIds.forEach(eventId -> {
+            long eventViews = views.getOrDefault(eventId, 0L);
+            views.put(eventId, eventViews);
+            cache.put(eventId, new CachedViews(eventViews, now));
+        });
+        return views;
+    }
+
+    private record CachedViews(long views, long loadedAt) {
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.ewm.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.HitChangesDto;
+import ru.practicum.HitStatDto;
+import ru.practicum.ewm.event.model.EventViews;
+import ru.practicum.ewm.event.model.ViewsSyncState;
+import ru.practicum.ewm.event.repository.EventViewsRepository;
+import ru.practicum.ewm.event.repository.ViewsSyncStateRepository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Локальная копия счётчиков просмотров, которую пополняет {@link EventViewsSyncJob}.
+ */
+@Slf4j
+@Service
+public class EventViewsService {
+
+    static final String EVENT_URI_PREFIX = "/events/";
+    private static final String SYNC_NAME = "event-views";
+
+    private final EventViewsRepository eventViewsRepository;
+    private final ViewsSyncStateRepository viewsSyncStateRepository;
+    private final boolean replicated;
+
+    public EventViewsService(EventViewsRepository eventViewsRepository,
+                             ViewsSyncStateRepository viewsSyncStateRepository,
+                             @Value("${ewm.views-sync.enabled:false}") boolean replicated) {
+        this.eventViewsRepository = eventViewsRepository;
+        this.viewsSyncStateRepository = viewsSyncStateRepository;
+        this.replicated = replicated;
+    }
+
+    public boolean isReplicated() {
+        return replicated;
+    }
+
+    @Transactional(readOnly = true)
+    public long getWatermark() {
+        return viewsSyncStateRepository.findById(SYNC_NAME)
+                .map(ViewsSyncState::getWatermark)
+                .orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getTop(int count) {
+        return eventViewsRepository.findAllByOrderByViewsDesc(PageRequest.of(0, count)).stream()
+                .collect(Collectors.toMap(
+                        EventViews::getEventId, EventViews::getViews, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    // Дельты и новый водяной знак сохраняются в одной транзакции, поэтому синхронизацию можно продолжить с любого места
+    // Строка состояния заблокирована до конца транзакции: одну пачку с нескольких экземпляров применит только один
+    @Transactional
+    public void applyChanges(HitChangesDto changes) {
+        ViewsSyncState state = viewsSyncStateRepository.findForUpdate(SYNC_NAME)
+                .orElseGet(() -> new ViewsSyncState(SYNC_NAME));
+        if (state.getWatermark() != changes.getFromId()) {
+            log.warn("Skipping views changes from {}: current watermark is {}",
+                    changes.getFromId(), state.getWatermark());
+            return;
+        }
+
+        Map<Long, Long> deltas = changes.getStats().stream()
+                .filter(dto -> dto.getUri().matches("/events/\\d+$"))
+                .collect(Collectors.groupingBy(
+                        dto -> Long.parseLong(dto.getUri().substring(EVENT_URI_PREFIX.length())),
+                        Collectors.summingLong(HitStatDto::getHits)));
+
+        Map<Long, EventViews> existing = eventViewsRepository.findAllById(deltas.keySet()).stream()
+                .collect(Collectors.toMap(EventViews::getEventId, Function.identity()));
+        List<EventViews> updated = deltas.entrySet().stream()
+                .map(entry -> {
+                    EventViews eventViews = existing.getOrDefault(entry.getKey(), new EventViews(entry.getKey()));
+                    eventViews.setViews(eventViews.getViews() + entry.getValue());
+                    return eventViews;
+                })
+                .toList();
+        eventViewsRepository.saveAll(updated);
+
+        state.setWatermark(changes.getToId());
+        viewsSyncStateRepository.save(state);
+        log.debug("Applied views of {} events up to visitor seq {}", updated.size(), changes.getToId());
+    }
+}
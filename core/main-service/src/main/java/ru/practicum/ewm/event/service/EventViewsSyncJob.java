@@ -0,0 +1,50 @@
+package ru.practicum.ewm.event.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.HitChangesDto;
+import ru.practicum.client.StatClient;
+
+/**
+ * Инкрементально переносит уникальные просмотры событий из stats-server в таблицу EVENT_VIEWS.
+ * За один запуск обрабатывается не больше max-batches пачек, остаток догоняется следующими запусками.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ewm.views-sync.enabled", havingValue = "true")
+public class EventViewsSyncJob {
+
+    private final StatClient statClient;
+    private final EventViewsService eventViewsService;
+
+    @Value("${ewm.views-sync.batch-size:10000}")
+    private int batchSize;
+
+    @Value("${ewm.views-sync.max-batches:20}")
+    private int maxBatches;
+
+    @Scheduled(fixedDelayString = "${ewm.views-sync.interval:10s}")
+    public void sync() {
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                long watermark = eventViewsService.getWatermark();
+                HitChangesDto changes = statClient.getChanges(
+                        watermark, batchSize, EventViewsService.EVENT_URI_PREFIX);
+                if (changes.getToId() > watermark) {
+                    eventViewsService.applyChanges(changes);
+                }
+                if (!Boolean.TRUE.equals(changes.getHasMore())) {
+                    return;
+                }
+            }
+            log.info("Views sync reached {} batches, continuing on next run", maxBatches);
+        } catch (RuntimeException e) {
+            log.warn("Views sync failed, will resume from stored watermark: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.ewm.like;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Entity
+@Getter
+@Setter
+@Table(name = "LIKE_COUNTERS")
+@IdClass(LikeCounter.Key.class)
+public class LikeCounter {
+
+    @Id
+    @Column(name = "TARGET")
+    @Enumerated(EnumType.STRING)
+    private LikeTarget target;
+
+    @Id
+    @Column(name = "TARGET_ID")
+    private long targetId;
+
+    @Column(name = "LIKES")
+    private long likes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LikeTarget target;
+        private long targetId;
+    }
+}
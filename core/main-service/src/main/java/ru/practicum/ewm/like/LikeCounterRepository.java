@@ -0,0 +1,50 @@
+package ru.practicum.ewm.like;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface LikeCounterRepository extends JpaRepository<LikeCounter, LikeCounter.Key> {
+
+    @Query("select c.likes from LikeCounter c where c.target = :target and c.targetId = :targetId")
+    Optional<Long> findLikes(LikeTarget target, long targetId);
+
+    @Query("select c from LikeCounter c where c.target = :target and c.targetId in :targetIds")
+    List<LikeCounter> findAllByTargetIds(LikeTarget target, Collection<Long> targetIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "LIKE_COUNTERS"))
+    @Query(value = "UPDATE LIKE_COUNTERS SET LIKES = LIKES + :delta WHERE TARGET = :target AND TARGET_ID = :targetId",
+            nativeQuery = true)
+    int addLikes(String target, long targetId, long delta);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "LIKE_COUNTERS"))
+    @Query(value = "INSERT INTO LIKE_COUNTERS (TARGET, TARGET_ID, LIKES) VALUES (:target, :targetId, :likes)",
+            nativeQuery = true)
+    void insert(String target, long targetId, long likes);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM LIKE_COUNTERS)", nativeQuery = true)
+    boolean hasCounters();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "LIKE_COUNTERS"))
+    @Query(value = """
+            INSERT INTO LIKE_COUNTERS (TARGET, TARGET_ID, LIKES)
+            SELECT 'EVENT', EVENT_ID, COUNT(*) FROM LIKES_EVENTS GROUP BY EVENT_ID""", nativeQuery = true)
+    void rebuildEventCounters();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "LIKE_COUNTERS"))
+    @Query(value = """
+            INSERT INTO LIKE_COUNTERS (TARGET, TARGET_ID, LIKES)
+            SELECT 'LOCATION', LOCATION_ID, COUNT(*) FROM LIKES_LOCATIONS GROUP BY LOCATION_ID""", nativeQuery = true)
+    void rebuildLocationCounters();
+}
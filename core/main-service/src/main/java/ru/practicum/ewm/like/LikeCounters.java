@@ -0,0 +1,150 @@
+package ru.practicum.ewm.like;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static ru.practicum.ewm.config.TransactionCallbacks.afterCommit;
+
+/**
+ * Счётчики лайков с отложенной записью.
+ * Запись в таблицу лайков выполняется сразу, а изменения количества копятся в памяти
+ * и периодически одной операцией на объект переносятся в LIKE_COUNTERS.
+ * LIKE_COUNTERS заполняется из таблиц лайков один раз, пока пуста; дальше её меняют только перенесённые изменения,
+ * иначе пересчёт на одном экземпляре учёл бы ещё не перенесённые изменения других дважды.
+ * Перенесённые значения кэшируются на cache-expire-after: изменения, перенесённые другими экземплярами,
+ * становятся видны не позже этого срока.
+ */
+@Slf4j
+@Component
+public class LikeCounters {
+
+    private final LikeCounterRepository likeCounterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<LikeCounter.Key, AtomicLong> pendingDeltas = new ConcurrentHashMap<>();
+    private final Cache<LikeCounter.Key, Long> persistedLikes;
+
+    public LikeCounters(LikeCounterRepository likeCounterRepository,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${ewm.likes.cache-size:100000}") long cacheSize,
+                        @Value("${ewm.likes.cache-expire-after:1m}") Duration cacheExpireAfter) {
+        this.likeCounterRepository = likeCounterRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.persistedLikes = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheExpireAfter)
+                .build();
+    }
+
+    public long getLikes(LikeTarget target, long id) {
+        LikeCounter.Key key = new LikeCounter.Key(target, id);
+        long persisted = persistedLikes.get(key, k -> likeCounterRepository.findLikes(target, id).orElse(0L));
+        AtomicLong pending = pendingDeltas.get(key);
+        return persisted + (pending == null ? 0 : pending.get());
+    }
+
+    /**
+     * Счётчики для набора объектов одним запросом к LIKE_COUNTERS, мимо кэша:
+     * при выгрузке каждый объект читается один раз и кэш только вытеснил бы горячие записи.
+     */
+    public Map<Long, Long> getLikes(LikeTarget target, Collection<Long> ids) {
+        Map<Long, Long> likes = new HashMap<>();
+        for (LikeCounter counter : likeCounterRepository.findAllByTargetIds(target, ids)) {
+            likes.put(counter.getTargetId(), counter.getLikes());
+        }
+        for (Long id : ids) {
+            AtomicLong pending = pendingDeltas.get(new LikeCounter.Key(target, id));
+            if (pending != null) {
+                likes.merge(id, pending.get(), Long::sum);
+            }
+        }
+        return likes;
+    }
+
+    // Возвращает оптимистичное значение: изменение попадёт в счётчик только после фиксации транзакции
+    public long addLike(LikeTarget target, long id) {
+        long likes = getLikes(target, id) + 1;
+        afterCommit(() -> addPendingDelta(target, id, 1));
+        return likes;
+    }
+
+    public long removeLike(LikeTarget target, long id) {
+        long likes = Math.max(getLikes(target, id) - 1, 0);
+        afterCommit(() -> addPendingDelta(target, id, -1));
+        return likes;
+    }
+
+    // При одновременном старте нескольких экземпляров вставку выполнит один, у остальных она упадёт на ключе
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            Boolean rebuilt = transactionTemplate.execute(status -> {
+                if (likeCounterRepository.hasCounters()) {
+                    return false;
+                }
+                likeCounterRepository.rebuildEventCounters();
+                likeCounterRepository.rebuildLocationCounters();
+                return true;
+            });
+            if (Boolean.TRUE.equals(rebuilt)) {
+                persistedLikes.invalidateAll();
+                log.info("Like counters rebuilt from likes tables");
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.info("Like counters are being rebuilt by another instance: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.likes.flush-interval:1s}")
+    public void flush() {
+        pendingDeltas.forEach((key, pending) -> {
+            // getAndSet атомарен: приращения после него останутся в счётчике до следующего переноса
+            long delta = pending.getAndSet(0);
+            if (delta == 0) {
+                removeIfZero(key);
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    String target = key.getTarget().name();
+                    if (likeCounterRepository.addLikes(target, key.getTargetId(), delta) == 0) {
+                        likeCounterRepository.insert(target, key.getTargetId(), delta);
+                    }
+                });
+                persistedLikes.invalidate(key);
+                removeIfZero(key);
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush {} likes for {}, will retry: {}", delta, key, e.getMessage());
+                pending.addAndGet(delta);
+            }
+        });
+    }
+
+    // Обнулившийся счётчик удаляется, иначе карта росла бы на каждый когда-либо лайкнутый объект
+    private void removeIfZero(LikeCounter.Key key) {
+        pendingDeltas.computeIfPresent(key, (k, pending) -> pending.get() == 0 ? null : pending);
+    }
+
+    // Изменение вносится внутри compute: удаление обнулившегося счётчика в flush не может его потерять
+    private void addPendingDelta(LikeTarget target, long id, long delta) {
+        pendingDeltas.compute(new LikeCounter.Key(target, id), (key, pending) -> {
+            AtomicLong counter = pending == null ? new AtomicLong() : pending;
+            counter.addAndGet(delta);
+            return counter;
+        });
+    }
+}
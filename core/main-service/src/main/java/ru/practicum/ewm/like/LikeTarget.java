@@ -0,0 +1,6 @@
+package ru.practicum.ewm.like;
+
+public enum LikeTarget {
+    EVENT,
+    LOCATION
+}
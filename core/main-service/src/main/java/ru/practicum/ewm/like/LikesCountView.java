@@ -0,0 +1,8 @@
+package ru.practicum.ewm.like;
+
+public interface LikesCountView {
+
+    Long getId();
+
+    Long getLikes();
+}
@@ -0,0 +1,93 @@
+package ru.practicum.ewm.like;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static ru.practicum.ewm.config.TransactionCallbacks.afterCommit;
+
+/**
+ * Рейтинг по количеству лайков, который поддерживается в памяти при добавлении и удалении лайков.
+ * Строится из таблицы лайков при старте и периодически сверяется с ней,
+ * поэтому расхождения между несколькими экземплярами сервиса временные.
+ */
+@Slf4j
+public abstract class LikesLeaderboard {
+
+    private static final Comparator<Entry> RANKING_ORDER = Comparator.comparingLong(Entry::likes).reversed()
+            .thenComparingLong(Entry::id);
+
+    private final Map<Long, Long> likes = new HashMap<>();
+    private final NavigableSet<Entry> ranking = new TreeSet<>(RANKING_ORDER);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    protected abstract List<LikesCountView> loadLikes();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${ewm.leaderboard.reconcile-interval:5m}",
+            fixedDelayString = "${ewm.leaderboard.reconcile-interval:5m}")
+    public void rebuild() {
+        List<LikesCountView> counts = loadLikes();
+        lock.writeLock().lock();
+        try {
+            likes.clear();
+            ranking.clear();
+            counts.forEach(count -> putInternal(count.getId(), count.getLikes()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("{} rebuilt with {} entries", getClass().getSimpleName(), counts.size());
+    }
+
+    public List<Long> getTopIds(int count) {
+        lock.readLock().lock();
+        try {
+            return ranking.stream()
+                    .limit(count)
+                    .map(Entry::id)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getLikes(long id) {
+        lock.readLock().lock();
+        try {
+            return likes.getOrDefault(id, 0L);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Только изменение, а не итоговое число: порядок afterCommit разных транзакций не совпадает с порядком фиксации
+    public void addLikesAfterCommit(long id, long delta) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                putInternal(id, likes.getOrDefault(id, 0L) + delta);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void putInternal(long id, long count) {
+        Long previous = likes.remove(id);
+        if (previous != null) {
+            ranking.remove(new Entry(id, previous));
+        }
+        if (count > 0) {
+            likes.put(id, count);
+            ranking.add(new Entry(id, count));
+        }
+    }
+
+    private record Entry(long id, long likes) {
+    }
+}
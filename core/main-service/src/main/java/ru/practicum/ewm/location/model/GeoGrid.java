@@ -0,0 +1,99 @@
+package ru.practicum.ewm.location.model;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбиение поверхности на ячейки фиксированного размера в градусах.
+ * Номер ячейки хранится в LOCATIONS.CELL и позволяет искать точки рядом по B-tree индексу,
+ * а точное расстояние затем проверяется по формуле гаверсинусов.
+ */
+@UtilityClass
+public class GeoGrid {
+
+    public static final double CELL_SIZE_DEGREES = 0.1;
+    // При большем числе ячеек фильтр по ним выгоднее заменить фильтром по широте
+    public static final int MAX_CELLS = 2048;
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final long ROWS = Math.round(180 / CELL_SIZE_DEGREES);
+    private static final long COLUMNS = Math.round(360 / CELL_SIZE_DEGREES);
+
+    public static long cellOf(double lat, double lon) {
+        return row(lat) * COLUMNS + column(lon);
+    }
+
+    /**
+     * Ячейки, пересекающие квадрат вокруг окружности заданного радиуса.
+     *
+     * @return пустой список, если ячеек больше {@link #MAX_CELLS}
+     */
+    public static List<Long> cellsWithin(double lat, double lon, double radiusKm) {
+        BoundingBox box = boundingBox(lat, lon, radiusKm);
+        long minRow = row(box.minLat());
+        long maxRow = row(box.maxLat());
+        long columns = box.wrapsLongitude() ? COLUMNS : columnSpan(box.minLon(), box.maxLon());
+        if ((maxRow - minRow + 1) * columns > MAX_CELLS) {
+            return List.of();
+        }
+
+        long firstColumn = box.wrapsLongitude() ? 0 : column(box.minLon());
+        List<Long> cells = new ArrayList<>();
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long i = 0; i < columns; i++) {
+                cells.add(row * COLUMNS + (firstColumn + i) % COLUMNS);
+            }
+        }
+        return cells;
+    }
+
+    public static BoundingBox boundingBox(double lat, double lon, double radiusKm) {
+        double latDelta = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double minLat = Math.max(lat - latDelta, -90);
+        double maxLat = Math.min(lat + latDelta, 90);
+        double cos = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double lonDelta = cos <= 0 ? 180 : Math.toDegrees(radiusKm / (EARTH_RADIUS_KM * cos));
+        if (lonDelta >= 180) {
+            return new BoundingBox(minLat, maxLat, -180, 180, true);
+        }
+        return new BoundingBox(minLat, maxLat, lon - lonDelta, lon + lonDelta, false);
+    }
+
+    /**
+     * Наибольшее значение гаверсинуса из {@link #distanceKm} для точек не дальше radiusKm.
+     */
+    public static double haversineWithin(double radiusKm) {
+        double halfAngle = Math.min(radiusKm / (2 * EARTH_RADIUS_KM), Math.PI / 2);
+        return Math.pow(Math.sin(halfAngle), 2);
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static long row(double lat) {
+        return Math.min((long) Math.floor((lat + 90) / CELL_SIZE_DEGREES), ROWS - 1);
+    }
+
+    private static long column(double lon) {
+        return Math.floorMod((long) Math.floor((lon + 180) / CELL_SIZE_DEGREES), COLUMNS);
+    }
+
+    private static long columnSpan(double minLon, double maxLon) {
+        long span = (long) Math.floor((maxLon + 180) / CELL_SIZE_DEGREES)
+                - (long) Math.floor((minLon + 180) / CELL_SIZE_DEGREES) + 1;
+        return Math.min(span, COLUMNS);
+    }
+
+    /**
+     * Границы поиска. Долгота может выходить за [-180, 180] у линии перемены дат.
+     */
+    public record BoundingBox(double minLat, double maxLat, double minLon, double maxLon, boolean wrapsLongitude) {
+    }
+}
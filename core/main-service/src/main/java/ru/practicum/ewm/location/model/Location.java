@@ -1,12 +1,16 @@
 package ru.practicum.ewm.location.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 @Getter
 @Setter
 @EqualsAndHashCode(of = {"id"})
@@ -16,7 +20,8 @@ public class Location {
 
     @Id
     @Column(name = "LOCATION_ID")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "locations_seq")
+    @SequenceGenerator(name = "locations_seq", sequenceName = "LOCATIONS_SEQ", allocationSize = 50)
     private long id;
 
     @Column(name = "LAT")
@@ -25,7 +30,16 @@ public class Location {
     @Column(name = "LON")
     private Float lon;
 
+    @JsonIgnore
+    @Column(name = "CELL")
+    private Long cell;
+
     @Transient
     Long likes;
 
+    @PrePersist
+    @PreUpdate
+    void updateCell() {
+        cell = lat == null || lon == null ? null : GeoGrid.cellOf(lat, lon);
+    }
 }
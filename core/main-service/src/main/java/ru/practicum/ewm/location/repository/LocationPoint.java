@@ -0,0 +1,10 @@
+package ru.practicum.ewm.location.repository;
+
+public interface LocationPoint {
+
+    Long getId();
+
+    Float getLat();
+
+    Float getLon();
+}
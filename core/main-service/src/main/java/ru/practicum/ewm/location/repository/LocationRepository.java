@@ -1,33 +1,36 @@
 package ru.practicum.ewm.location.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.ewm.like.LikesCountView;
 import ru.practicum.ewm.location.model.Location;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
-public interface LocationRepository extends JpaRepository<Location, Long> {
+public interface LocationRepository extends JpaRepository<Location, Long>, LocationUpsertRepository {
 
-    @Query(value = "MERGE INTO LIKES_LOCATIONS (LOCATION_ID, USER_ID) values (:locationId, :userId)", nativeQuery = true)
-    void addLike(Long userId, Long locationId);
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "LIKES_LOCATIONS"))
+    @Query(value = "DELETE FROM LIKES_LOCATIONS WHERE LOCATION_ID = :locationId AND USER_ID = :userId", nativeQuery = true)
+    int deleteLike(Long userId, Long locationId);
 
-    @Query(value = "DELETE FROM LIKES_LOCATIONS WHERE LOCATION_ID = :locationId AND USER_ID = :userId ", nativeQuery = true)
-    void deleteLike(Long userId, Long locationId);
+    @Query(value = "SELECT LOCATION_ID AS ID, COUNT(*) AS LIKES FROM LIKES_LOCATIONS GROUP BY LOCATION_ID",
+            nativeQuery = true)
+    List<LikesCountView> countLikes();
 
-    @Query(value = "SELECT EXISTS (" +
-            "SELECT * FROM LIKES_LOCATIONS WHERE LOCATION_ID = :locationId AND USER_ID = :userId)", nativeQuery = true)
-    boolean checkLikeExisting(Long userId, Long locationId);
-
-    @Query(value = """
-        SELECT L.*, RATE.LIKES FROM LOCATIONS L LEFT JOIN (
-        SELECT LOCATION_ID, COUNT(*) AS LIKES FROM LIKES_LOCATIONS
-        GROUP BY LOCATION_ID) AS RATE ON L.LOCATION_ID = RATE.LOCATION_ID
-        ORDER BY RATE.LIKES DESC NULLS LAST
-        LIMIT :count""", nativeQuery = true)
-    List<Location> findTop(Integer count);
-
-    @Query(value = "SELECT COUNT(*) FROM LIKES_LOCATIONS WHERE LOCATION_ID = :locationId", nativeQuery = true)
-    long countLikesByLocationId(Long locationId);
+    @Query("select l.id from Location l order by l.id")
+    List<Long> findIds(Pageable pageable);
 
+    @Query(value = "SELECT LOCATION_ID FROM LOCATIONS WHERE LAT = :lat AND LON = :lon", nativeQuery = true)
+    Optional<Long> findIdByCoordinates(BigDecimal lat, BigDecimal lon);
 
+    @Query("select l.id as id, l.lat as lat, l.lon as lon from Location l where l.id > :afterId order by l.id")
+    List<LocationPoint> findPoints(long afterId, Pageable pageable);
 }
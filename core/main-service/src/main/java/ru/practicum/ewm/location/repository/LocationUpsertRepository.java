@@ -0,0 +1,26 @@
+package ru.practicum.ewm.location.repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+public interface LocationUpsertRepository {
+
+    /**
+     * Добавляет лайк одним запросом.
+     *
+     * @return true, если лайк добавлен, false, если он уже был
+     */
+    boolean addLike(long userId, long locationId);
+
+    /**
+     * Добавляет лайки пользователя нескольким локациям: одна многострочная вставка на порцию идентификаторов.
+     *
+     * @return количество добавленных лайков, уже существовавшие не считаются
+     */
+    int addLikes(long userId, Collection<Long> locationIds);
+
+    /**
+     * Добавляет локацию, если локации с такими координатами ещё нет. Не прерывает транзакцию при конфликте.
+     */
+    void insertIfAbsent(BigDecimal lat, BigDecimal lon, long cell);
+}
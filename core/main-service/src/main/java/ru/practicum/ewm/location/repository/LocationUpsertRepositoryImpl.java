@@ -0,0 +1,83 @@
+package ru.practicum.ewm.location.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.jdbc.DatabaseDialect;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class LocationUpsertRepositoryImpl implements LocationUpsertRepository {
+
+    // Две привязки на строку: порция остаётся далеко от предела числа параметров запроса
+    static final int LIKES_CHUNK_SIZE = 1000;
+
+    private static final String POSTGRES_LIKE_UPSERT =
+            "INSERT INTO LIKES_LOCATIONS (LOCATION_ID, USER_ID) VALUES (?, ?) ON CONFLICT DO NOTHING";
+    // H2 не поддерживает ON CONFLICT вне режима совместимости, MERGE ... WHEN NOT MATCHED даёт ту же семантику
+    private static final String STANDARD_LIKE_UPSERT = """
+            MERGE INTO LIKES_LOCATIONS L
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS S (LOCATION_ID, USER_ID)
+            ON L.LOCATION_ID = S.LOCATION_ID AND L.USER_ID = S.USER_ID
+            WHEN NOT MATCHED THEN INSERT (LOCATION_ID, USER_ID) VALUES (S.LOCATION_ID, S.USER_ID)""";
+    private static final String POSTGRES_LOCATION_UPSERT = """
+            INSERT INTO LOCATIONS (LOCATION_ID, LAT, LON, CELL) VALUES (nextval('LOCATIONS_SEQ'), ?, ?, ?)
+            ON CONFLICT (LAT, LON) DO NOTHING""";
+    private static final String STANDARD_LOCATION_UPSERT = """
+            MERGE INTO LOCATIONS L
+            USING (VALUES (CAST(? AS NUMERIC(10,6)), CAST(? AS NUMERIC(10,6)), CAST(? AS BIGINT))) AS S (LAT, LON, CELL)
+            ON L.LAT = S.LAT AND L.LON = S.LON
+            WHEN NOT MATCHED THEN INSERT (LOCATION_ID, LAT, LON, CELL)
+            VALUES (NEXT VALUE FOR LOCATIONS_SEQ, S.LAT, S.LON, S.CELL)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect databaseDialect;
+
+    @Override
+    public boolean addLike(long userId, long locationId) {
+        return jdbcTemplate.update(likeUpsertSql(), locationId, userId) > 0;
+    }
+
+    // Число добавленных строк - счётчик обновлений самого запроса, а не сумма результатов пакета:
+    // драйвер может вернуть для пакета SUCCESS_NO_INFO вместо числа строк
+    @Override
+    public int addLikes(long userId, Collection<Long> locationIds) {
+        List<Long> distinctIds = locationIds.stream().distinct().toList();
+        int added = 0;
+        for (int from = 0; from < distinctIds.size(); from += LIKES_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + LIKES_CHUNK_SIZE, distinctIds.size()));
+            List<Object> args = new ArrayList<>(chunk.size() * 2);
+            chunk.forEach(locationId -> {
+                args.add(locationId);
+                args.add(userId);
+            });
+            added += jdbcTemplate.update(likesUpsertSql(chunk.size()), args.toArray());
+        }
+        return added;
+    }
+
+    @Override
+    public void insertIfAbsent(BigDecimal lat, BigDecimal lon, long cell) {
+        jdbcTemplate.update(databaseDialect.isPostgres() ? POSTGRES_LOCATION_UPSERT : STANDARD_LOCATION_UPSERT,
+                lat, lon, cell);
+    }
+
+    private String likeUpsertSql() {
+        return databaseDialect.isPostgres() ? POSTGRES_LIKE_UPSERT : STANDARD_LIKE_UPSERT;
+    }
+
+    private String likesUpsertSql(int rows) {
+        if (databaseDialect.isPostgres()) {
+            return "INSERT INTO LIKES_LOCATIONS (LOCATION_ID, USER_ID) VALUES "
+                    + String.join(", ", Collections.nCopies(rows, "(?, ?)")) + " ON CONFLICT DO NOTHING";
+        }
+        return "MERGE INTO LIKES_LOCATIONS L USING (VALUES "
+                + String.join(", ", Collections.nCopies(rows, "(CAST(? AS BIGINT), CAST(? AS BIGINT))"))
+                + ") AS S (LOCATION_ID, USER_ID) ON L.LOCATION_ID = S.LOCATION_ID AND L.USER_ID = S.USER_ID "
+                + "WHEN NOT MATCHED THEN INSERT (LOCATION_ID, USER_ID) VALUES (S.LOCATION_ID, S.USER_ID)";
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.ewm.location.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.location.model.GeoGrid;
+import ru.practicum.ewm.location.model.Location;
+import ru.practicum.ewm.location.repository.LocationPoint;
+import ru.practicum.ewm.location.repository.LocationRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Сетка локаций в памяти для частых запросов поиска поблизости.
+ * Лишний идентификатор (например, после отката транзакции) безопасен: события всё равно выбираются из базы.
+ */
+@Slf4j
+@Component
+public class LocationGridIndex {
+
+    private static final int LOAD_BATCH_SIZE = 10000;
+
+    private final LocationRepository locationRepository;
+    private final boolean enabled;
+    private final Map<Long, Map<Long, Point>> cells = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public LocationGridIndex(LocationRepository locationRepository,
+                             @Value("${ewm.geo.in-memory-index:false}") boolean enabled) {
+        this.locationRepository = locationRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isAvailable() {
+        return enabled && loaded;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long afterId = 0;
+        int count = 0;
+        List<LocationPoint> points;
+        do {
+            points = locationRepository.findPoints(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (LocationPoint point : points) {
+                put(point.getId(), point.getLat(), point.getLon());
+                afterId = point.getId();
+            }
+            count += points.size();
+        } while (points.size() == LOAD_BATCH_SIZE);
+        loaded = true;
+        log.info("Location grid index loaded: {} locations in {} cells", count, cells.size());
+    }
+
+    public void put(Location location) {
+        if (enabled) {
+            put(location.getId(), location.getLat(), location.getLon());
+        }
+    }
+
+    /**
+     * Идентификаторы локаций не дальше radiusKm от точки.
+     */
+    public Set<Long> findWithin(double lat, double lon, double radiusKm) {
+        List<Long> cellIds = GeoGrid.cellsWithin(lat, lon, radiusKm);
+        Collection<Map<Long, Point>> candidates = cellIds.isEmpty()
+                ? cells.values()
+                : cellIds.stream().map(cells::get).filter(Objects::nonNull).toList();
+
+        Set<Long> locationIds = new HashSet<>();
+        candidates.forEach(cell -> cell.forEach((id, point) -> {
+            if (GeoGrid.distanceKm(lat, lon, point.lat(), point.lon()) <= radiusKm) {
+                locationIds.add(id);
+            }
+        }));
+        return locationIds;
+    }
+
+    private void put(Long id, Float lat, Float lon) {
+        if (lat == null || lon == null) {
+            return;
+        }
+        cells.computeIfAbsent(GeoGrid.cellOf(lat, lon), cell -> new ConcurrentHashMap<>())
+                .put(id, new Point(lat, lon));
+    }
+
+    private record Point(float lat, float lon) {
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.ewm.location.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.exception.IncorrectValueException;
+import ru.practicum.ewm.location.model.GeoGrid;
+import ru.practicum.ewm.location.model.Location;
+import ru.practicum.ewm.location.repository.LocationRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static ru.practicum.ewm.config.TransactionCallbacks.afterCommit;
+
+/**
+ * Возвращает единственную строку LOCATIONS для каждой пары координат.
+ * Координаты округляются до точности столбцов, уникальность обеспечивает индекс (LAT, LON),
+ * а найденные идентификаторы кэшируются в памяти.
+ */
+@Component
+public class LocationInterner {
+
+    private static final int COORDINATE_SCALE = 6;
+
+    private final LocationRepository locationRepository;
+    private final LocationGridIndex locationGridIndex;
+    private final Cache<Coordinates, Long> locationIds;
+
+    public LocationInterner(LocationRepository locationRepository,
+                            LocationGridIndex locationGridIndex,
+                            @Value("${ewm.locations.intern-cache-size:100000}") long cacheSize) {
+        this.locationRepository = locationRepository;
+        this.locationGridIndex = locationGridIndex;
+        this.locationIds = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    /**
+     * Должен вызываться в транзакции, в которой локация будет использована.
+     */
+    public Location intern(Location location) {
+        if (location.getLat() == null || location.getLon() == null) {
+            throw new IncorrectValueException("Location lat and lon must be specified");
+        }
+        Coordinates coordinates = new Coordinates(normalize(location.getLat()), normalize(location.getLon()));
+
+        Long id = locationIds.getIfPresent(coordinates);
+        if (id == null) {
+            long cell = GeoGrid.cellOf(coordinates.lat().doubleValue(), coordinates.lon().doubleValue());
+            locationRepository.insertIfAbsent(coordinates.lat(), coordinates.lon(), cell);
+            long locationId = locationRepository.findIdByCoordinates(coordinates.lat(), coordinates.lon())
+                    .orElseThrow(() -> new IllegalStateException("Location " + coordinates + " was not saved"));
+            // Новая строка видна другим только после фиксации транзакции
+            afterCommit(() -> locationIds.put(coordinates, locationId));
+            id = locationId;
+        }
+
+        Location interned = new Location();
+        interned.setId(id);
+        interned.setLat(coordinates.lat().floatValue());
+        interned.setLon(coordinates.lon().floatValue());
+        interned.setCell(GeoGrid.cellOf(interned.getLat(), interned.getLon()));
+        // Индекс общий для всех запросов: откаченная локация не должна попадать в поиск рядом
+        afterCommit(() -> locationGridIndex.put(interned));
+        return interned;
+    }
+
+    private static BigDecimal normalize(Float coordinate) {
+        return new BigDecimal(Float.toString(coordinate)).setScale(COORDINATE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private record Coordinates(BigDecimal lat, BigDecimal lon) {
+    }
+}
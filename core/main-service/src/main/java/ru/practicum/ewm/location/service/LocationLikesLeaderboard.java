@@ -0,0 +1,21 @@
+package ru.practicum.ewm.location.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.like.LikesCountView;
+import ru.practicum.ewm.like.LikesLeaderboard;
+import ru.practicum.ewm.location.repository.LocationRepository;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class LocationLikesLeaderboard extends LikesLeaderboard {
+
+    private final LocationRepository locationRepository;
+
+    @Override
+    protected List<LikesCountView> loadLikes() {
+        return locationRepository.countLikes();
+    }
+}
@@ -2,17 +2,22 @@ package ru.practicum.ewm.location.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.exception.NotFoundException;
+import ru.practicum.ewm.like.LikeCounters;
+import ru.practicum.ewm.like.LikeTarget;
 import ru.practicum.ewm.location.dto.LocationDto;
 import ru.practicum.ewm.location.mapper.LocationMapper;
 import ru.practicum.ewm.location.model.Location;
 import ru.practicum.ewm.location.repository.LocationRepository;
+import ru.practicum.ewm.reference.ReferenceDataCache;
 import ru.practicum.ewm.user.model.User;
-import ru.practicum.ewm.user.repository.UserRepository;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,8 +25,10 @@ import java.util.List;
 public class LocationServiceImpl implements LocationService {
 
     private final LocationRepository locationRepository;
-    private final UserRepository userRepository;
+    private final ReferenceDataCache referenceDataCache;
     private final LocationMapper locationMapper;
+    private final LocationLikesLeaderboard locationLikesLeaderboard;
+    private final LikeCounters likeCounters;
 
     @Override
     @Transactional
@@ -31,11 +38,15 @@ public class LocationServiceImpl implements LocationService {
         User user = findUserById(userId);
         Location location = findLocationById(locationId);
 
-        locationRepository.addLike(userId, locationId);
+        if (!locationRepository.addLike(userId, locationId)) {
+            log.debug("Like from userId={} for locationId={} already exists", userId, locationId);
+            return toLocationDto(location, likeCounters.getLikes(LikeTarget.LOCATION, locationId));
+        }
         log.debug("Like added successfully for locationId={}", locationId);
 
-        Location updatedLocation = findLocationById(locationId); // Получаем обновлённую локацию
-        return locationMapper.locationToLocationDto(updatedLocation);
+        long likes = likeCounters.addLike(LikeTarget.LOCATION, locationId);
+        locationLikesLeaderboard.addLikesAfterCommit(locationId, 1);
+        return toLocationDto(location, likes);
     }
 
     @Override
@@ -46,12 +57,13 @@ public class LocationServiceImpl implements LocationService {
         User user = findUserById(userId);
         Location location = findLocationById(locationId);
 
-        if (!locationRepository.checkLikeExisting(userId, locationId)) {
+        if (locationRepository.deleteLike(userId, locationId) == 0) {
             log.error("Like from userId={} for locationId={} does not exist", userId, locationId);
             throw new NotFoundException("Like from user id=" + userId + " for location id=" + locationId + " not found");
         }
 
-        locationRepository.deleteLike(userId, locationId);
+        likeCounters.removeLike(LikeTarget.LOCATION, locationId);
+        locationLikesLeaderboard.addLikesAfterCommit(locationId, -1);
         log.info("Like deleted successfully for locationId={}", locationId);
     }
 
@@ -61,14 +73,20 @@ public class LocationServiceImpl implements LocationService {
         log.info("Fetching top {} locations for userId={}", count, userId);
 
         User user = findUserById(userId);
-        List<Location> topLocations = locationRepository.findTop(count);
+        List<Long> topLocationIds = getTopLocationIds(count);
+        Map<Long, Location> locationMap = locationRepository.findAllById(topLocationIds).stream()
+                .collect(Collectors.toMap(Location::getId, Function.identity()));
+        List<Location> topLocations = topLocationIds.stream()
+                .map(locationMap::get)
+                .filter(Objects::nonNull)
+                .toList();
 
         if (topLocations.isEmpty()) {
             log.warn("No locations found for top list with count={}", count);
         }
 
         topLocations.forEach(location -> {
-            long likes = locationRepository.countLikesByLocationId(location.getId());
+            long likes = locationLikesLeaderboard.getLikes(location.getId());
             location.setLikes(likes);
             log.debug("Location id={} has {} likes", location.getId(), likes);
         });
@@ -79,8 +97,25 @@ public class LocationServiceImpl implements LocationService {
                 .toList();
     }
 
+    private List<Long> getTopLocationIds(int count) {
+        List<Long> topLocationIds = new ArrayList<>(locationLikesLeaderboard.getTopIds(count));
+        if (topLocationIds.size() < count) {
+            Set<Long> rankedIds = new HashSet<>(topLocationIds);
+            locationRepository.findIds(PageRequest.of(0, count + topLocationIds.size())).stream()
+                    .filter(id -> !rankedIds.contains(id))
+                    .limit(count - topLocationIds.size())
+                    .forEach(topLocationIds::add);
+        }
+        return topLocationIds;
+    }
+
+    // Локация из кэша общая, поэтому количество лайков передаётся в DTO, а не в сущность
+    private LocationDto toLocationDto(Location location, long likes) {
+        return new LocationDto(location.getId(), location.getLat(), location.getLon(), likes);
+    }
+
     private User findUserById(long userId) {
-        return userRepository.findById(userId)
+        return referenceDataCache.findUser(userId)
                 .orElseThrow(() -> {
                     log.error("User with id={} not found", userId);
                     return new NotFoundException("User with id=" + userId + " not found");
@@ -88,7 +123,7 @@ public class LocationServiceImpl implements LocationService {
     }
 
     private Location findLocationById(long locationId) {
-        return locationRepository.findById(locationId)
+        return referenceDataCache.findLocation(locationId)
                 .orElseThrow(() -> {
                     log.error("Location with id={} not found", locationId);
                     return new NotFoundException("Location with id=" + locationId + " not found");
@@ -0,0 +1,76 @@
+package ru.practicum.ewm.reference;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.location.model.Location;
+import ru.practicum.ewm.location.repository.LocationRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.util.Optional;
+
+import static ru.practicum.ewm.config.TransactionCallbacks.afterCommit;
+
+/**
+ * Кэш редко меняющихся справочных сущностей, которые в основном нужны для проверки существования.
+ * Возвращаемые объекты общие для всех потоков и не должны изменяться.
+ * Отсутствующие записи не кэшируются, изменения сбрасываются после фиксации транзакции.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataCache {
+
+    public static final String USERS = "users";
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY_PAGES = "category-pages";
+    public static final String LOCATIONS = "locations";
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final LocationRepository locationRepository;
+    private final CacheManager cacheManager;
+
+    @Cacheable(cacheNames = USERS, key = "#userId", unless = "#result == null")
+    public Optional<User> findUser(long userId) {
+        return userRepository.findById(userId);
+    }
+
+    @Cacheable(cacheNames = CATEGORIES, key = "#categoryId", unless = "#result == null")
+    public Optional<Category> findCategory(long categoryId) {
+        return categoryRepository.findById(categoryId);
+    }
+
+    // Локации после создания не меняются
+    @Cacheable(cacheNames = LOCATIONS, key = "#locationId", unless = "#result == null")
+    public Optional<Location> findLocation(long locationId) {
+        return locationRepository.findById(locationId);
+    }
+
+    public void evictUser(long userId) {
+        afterCommit(() -> cache(USERS).evict(userId));
+    }
+
+    public void evictCategory(long categoryId) {
+        afterCommit(() -> {
+            cache(CATEGORIES).evict(categoryId);
+            cache(CATEGORY_PAGES).clear();
+        });
+    }
+
+    public void evictCategoryPages() {
+        afterCommit(() -> cache(CATEGORY_PAGES).clear());
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache " + name + " is not configured");
+        }
+        return cache;
+    }
+}
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class Request {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "REQUESTS_SEQ", allocationSize = 50)
     @Column(name = "REQUEST_ID")
     private Long id;
 
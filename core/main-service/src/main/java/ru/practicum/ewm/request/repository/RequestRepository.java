@@ -1,11 +1,15 @@
 package ru.practicum.ewm.request.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.ewm.request.model.Request;
 import ru.practicum.ewm.request.model.RequestStatus;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface RequestRepository extends JpaRepository<Request, Long> {
@@ -18,11 +22,17 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
 
     long countByStatusAndEventId(RequestStatus status, long eventId);
 
+    @Query("select r.event.id as eventId, count(r) as requests from Request r " +
+            "where r.status = ?1 and r.event.id in ?2 group by r.event.id")
+    List<RequestsCountView> countByStatusAndEventIds(RequestStatus status, Collection<Long> eventIds);
+
     @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "REQUESTS"))
     @Query(value = "UPDATE REQUESTS SET STATUS = ?1 WHERE REQUEST_ID = ?2", nativeQuery = true)
     void updateStatus(String status, long requestId);
 
     @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "REQUESTS"))
     @Query(value = "UPDATE REQUESTS SET STATUS = 'CANCELED' WHERE EVENT_ID = ?1 AND STATUS = 'PENDING'", nativeQuery = true)
     void cancelNewRequestsStatus(long eventId);
 
@@ -0,0 +1,8 @@
+package ru.practicum.ewm.request.repository;
+
+public interface RequestsCountView {
+
+    Long getEventId();
+
+    Long getRequests();
+}
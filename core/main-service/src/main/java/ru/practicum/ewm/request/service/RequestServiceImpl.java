@@ -10,6 +10,7 @@ import ru.practicum.ewm.event.repository.EventRepository;
 import ru.practicum.ewm.exception.AccessException;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.NotFoundException;
+import ru.practicum.ewm.reference.ReferenceDataCache;
 import ru.practicum.ewm.request.controller.PrivateUpdateRequestParams;
 import ru.practicum.ewm.request.dto.EventRequestStatusUpdateResult;
 import ru.practicum.ewm.request.dto.ParticipationRequestDto;
@@ -18,7 +19,6 @@ import ru.practicum.ewm.request.model.Request;
 import ru.practicum.ewm.request.model.RequestStatus;
 import ru.practicum.ewm.request.repository.RequestRepository;
 import ru.practicum.ewm.user.model.User;
-import ru.practicum.ewm.user.repository.UserRepository;
 
 import java.util.List;
 import java.util.Objects;
@@ -29,7 +29,7 @@ import java.util.Objects;
 public class RequestServiceImpl implements RequestService {
 
     private final RequestRepository requestRepository;
-    private final UserRepository userRepository;
+    private final ReferenceDataCache referenceDataCache;
     private final EventRepository eventRepository;
     private final RequestMapper requestMapper;
 
@@ -38,7 +38,7 @@ public class RequestServiceImpl implements RequestService {
     public ParticipationRequestDto create(long userId, long eventId) {
         log.info("Creating participation request for userId={} and eventId={}", userId, eventId);
 
-        User user = userRepository.findById(userId)
+        User user = referenceDataCache.findUser(userId)
                 .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new NotFoundException("Event with id=" + eventId + " not found"));
@@ -62,7 +62,7 @@ public class RequestServiceImpl implements RequestService {
     public List<ParticipationRequestDto> getAllOwnRequests(long userId) {
         log.info("Fetching all requests for userId={}", userId);
 
-        userRepository.findById(userId)
+        referenceDataCache.findUser(userId)
                 .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
         List<Request> requests = requestRepository.getAllByRequesterId(userId);
 
@@ -77,7 +77,7 @@ public class RequestServiceImpl implements RequestService {
     public ParticipationRequestDto cancel(long userId, long requestId) {
         log.info("Cancelling requestId={} for userId={}", requestId, userId);
 
-        User user = userRepository.findById(userId)
+        User user = referenceDataCache.findUser(userId)
                 .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
         Request request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Request with id=" + requestId + " not found"));
@@ -96,7 +96,7 @@ public class RequestServiceImpl implements RequestService {
     public List<ParticipationRequestDto> getAllForOwnEvent(long userId, long eventId) {
         log.info("Fetching all requests for eventId={} by userId={}", eventId, userId);
 
-        User user = userRepository.findById(userId)
+        User user = referenceDataCache.findUser(userId)
                 .orElseThrow(() -> new NotFoundException("User with id=" + userId + " not found"));
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new NotFoundException("Event with id=" + eventId + " not found"));
@@ -114,7 +114,7 @@ public class RequestServiceImpl implements RequestService {
     @Override
     @Transactional
     public EventRequestStatusUpdateResult updateStatus(PrivateUpdateRequestParams params) {
-        User user = userRepository.findById(params.userId())
+        User user = referenceDataCache.findUser(params.userId())
                 .orElseThrow(() -> new NotFoundException("User with id " + params.userId() + " not found"));
         Event event = eventRepository.findById(params.eventId())
                 .orElseThrow(() -> new NotFoundException("Event with id " + params.eventId() + " not found"));
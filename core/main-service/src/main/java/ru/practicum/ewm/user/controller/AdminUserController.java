@@ -30,6 +30,23 @@ public class AdminUserController {
         return receivedUserDto;
     }
 
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<UserDto> addAll(@RequestBody List<UserCreateDto> userCreateDtos) {
+        log.info("==> POST. Adding {} users in bulk", userCreateDtos.size());
+        List<UserDto> receivedUserDtoList = userService.addAll(userCreateDtos);
+        log.info("<== POST. Users added: {}", receivedUserDtoList.size());
+        return receivedUserDtoList;
+    }
+
+    @PostMapping("/lookup")
+    public List<UserDto> getAllByIds(@RequestBody List<Long> ids) {
+        log.info("==> POST. Getting {} users by ids", ids.size());
+        List<UserDto> receivedUserDtoList = userService.getAllByIds(ids);
+        log.info("<== POST. User list with size: {}", receivedUserDtoList.size());
+        return receivedUserDtoList;
+    }
+
     @DeleteMapping("/{userId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(@PathVariable("userId") int userId) {
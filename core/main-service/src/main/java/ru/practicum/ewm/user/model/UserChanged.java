@@ -0,0 +1,7 @@
+package ru.practicum.ewm.user.model;
+
+/**
+ * Публикуется при удалении пользователя: его события и краткие представления тоже меняются.
+ */
+public record UserChanged(long userId) {
+}
@@ -10,6 +10,10 @@ public interface UserService {
 
     UserDto add(UserCreateDto userCreateDto);
 
+    List<UserDto> addAll(List<UserCreateDto> userCreateDtos);
+
+    List<UserDto> getAllByIds(List<Long> ids);
+
     List<UserDto> getAll(AdminUsersGetAllParams adminUsersGetAllParams);
 
     void delete(long userId);
@@ -1,27 +1,44 @@
 package ru.practicum.ewm.user.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.exception.IncorrectValueException;
 import ru.practicum.ewm.exception.NotFoundException;
+import ru.practicum.ewm.reference.ReferenceDataCache;
 import ru.practicum.ewm.user.controller.AdminUsersGetAllParams;
 import ru.practicum.ewm.user.dto.UserCreateDto;
 import ru.practicum.ewm.user.dto.UserDto;
 import ru.practicum.ewm.user.mapper.UserMapper;
 import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.model.UserChanged;
 import ru.practicum.ewm.user.repository.UserRepository;
 
-import java.util.List;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserServiceImpl implements UserService {
 
+    private static final int BATCH_SIZE = 1000;
+    // Запас до лимита параметров в одном запросе PostgreSQL
+    private static final int MAX_IN_PARAMETERS = 10000;
+    private static final int MAX_REPORTED_VALUES = 10;
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final Validator validator;
 
     @Override
     @Transactional
@@ -33,6 +50,49 @@ public class UserServiceImpl implements UserService {
         return userMapper.userToUserDto(savedUser);
     }
 
+    @Override
+    @Transactional
+    public List<UserDto> addAll(List<UserCreateDto> userCreateDtos) {
+        log.info("Adding {} users in bulk", userCreateDtos.size());
+        validate(userCreateDtos);
+        checkEmailsAreFree(userCreateDtos.stream().map(UserCreateDto::email).toList());
+
+        List<UserDto> addedUsers = new ArrayList<>(userCreateDtos.size());
+        for (List<UserCreateDto> chunk : partition(userCreateDtos, BATCH_SIZE)) {
+            List<User> savedUsers = userRepository.saveAll(chunk.stream()
+                    .map(userMapper::userCreateDtoToUser)
+                    .toList());
+            // Пакетная вставка и очистка контекста, чтобы он не рос вместе с размером запроса
+            entityManager.flush();
+            entityManager.clear();
+            savedUsers.stream()
+                    .map(userMapper::userToUserDto)
+                    .forEach(addedUsers::add);
+        }
+        log.info("{} users successfully added", addedUsers.size());
+        return addedUsers;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDto> getAllByIds(List<Long> ids) {
+        log.info("Fetching {} users by ids", ids.size());
+        List<Long> sortedIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+
+        List<UserDto> users = new ArrayList<>(sortedIds.size());
+        for (List<Long> chunk : partition(sortedIds, MAX_IN_PARAMETERS)) {
+            userRepository.findAllByIdInOrderByIdAsc(chunk).stream()
+                    .map(userMapper::userToUserDto)
+                    .forEach(users::add);
+        }
+        log.info("Found {} users", users.size());
+        return users;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<UserDto> getAll(AdminUsersGetAllParams params) {
@@ -59,6 +119,60 @@ public class UserServiceImpl implements UserService {
                     return new NotFoundException("User with id=" + userId + " not found");
                 });
         userRepository.delete(user);
+        referenceDataCache.evictUser(userId);
+        eventPublisher.publishEvent(new UserChanged(userId));
         log.info("User with id={} successfully deleted", userId);
     }
-}
\ No newline at end of file
+
+    private void validate(List<UserCreateDto> userCreateDtos) {
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < userCreateDtos.size(); i++) {
+            UserCreateDto dto = userCreateDtos.get(i);
+            if (dto == null) {
+                errors.add("[" + i + "]: must not be null");
+                continue;
+            }
+            for (ConstraintViolation<UserCreateDto> violation : validator.validate(dto)) {
+                errors.add("[" + i + "]." + violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IncorrectValueException("Invalid users: " + abbreviate(errors));
+        }
+    }
+
+    // Одна проверка IN на каждые MAX_IN_PARAMETERS адресов вместо проверки на каждого пользователя
+    private void checkEmailsAreFree(List<String> emails) {
+        Set<String> uniqueEmails = new HashSet<>();
+        List<String> duplicates = emails.stream()
+                .filter(email -> !uniqueEmails.add(email))
+                .distinct()
+                .toList();
+        if (!duplicates.isEmpty()) {
+            throw new ConflictException("Duplicate emails in request: " + abbreviate(duplicates));
+        }
+
+        List<String> existingEmails = new ArrayList<>();
+        for (List<String> chunk : partition(emails, MAX_IN_PARAMETERS)) {
+            existingEmails.addAll(userRepository.findExistingEmails(chunk));
+        }
+        if (!existingEmails.isEmpty()) {
+            throw new ConflictException("Users with emails already exist: " + abbreviate(existingEmails));
+        }
+    }
+
+    private static String abbreviate(List<String> values) {
+        String shown = String.join(", ", values.subList(0, Math.min(values.size(), MAX_REPORTED_VALUES)));
+        return values.size() > MAX_REPORTED_VALUES
+                ? shown + " and " + (values.size() - MAX_REPORTED_VALUES) + " more"
+                : shown;
+    }
+
+    private static <T> List<List<T>> partition(List<T> values, int size) {
+        List<List<T>> parts = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += size) {
+            parts.add(values.subList(from, Math.min(from + size, values.size())));
+        }
+        return parts;
+    }
+}
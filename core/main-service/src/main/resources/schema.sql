@@ -7,11 +7,28 @@ DROP TABLE IF EXISTS COMPILATIONS CASCADE;
 DROP TABLE IF EXISTS COMPILATIONS_EVENTS CASCADE;
 DROP TABLE IF EXISTS LIKES_EVENTS CASCADE;
 DROP TABLE IF EXISTS LIKES_LOCATIONS CASCADE;
+DROP TABLE IF EXISTS EVENT_VIEWS CASCADE;
+DROP TABLE IF EXISTS VIEWS_SYNC_STATE CASCADE;
+DROP TABLE IF EXISTS LIKE_COUNTERS CASCADE;
+DROP SEQUENCE IF EXISTS USERS_SEQ;
+DROP SEQUENCE IF EXISTS LOCATIONS_SEQ;
+DROP SEQUENCE IF EXISTS CATEGORIES_SEQ;
+DROP SEQUENCE IF EXISTS EVENTS_SEQ;
+DROP SEQUENCE IF EXISTS COMPILATIONS_SEQ;
+DROP SEQUENCE IF EXISTS REQUESTS_SEQ;
+
+-- Шаг последовательностей совпадает с allocationSize в сущностях (pooled optimizer)
+CREATE SEQUENCE IF NOT EXISTS USERS_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS LOCATIONS_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS CATEGORIES_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS EVENTS_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS COMPILATIONS_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS REQUESTS_SEQ START WITH 1 INCREMENT BY 50;
 
 
 CREATE TABLE IF NOT EXISTS USERS
 (
-    USER_ID BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    USER_ID BIGINT NOT NULL,
     NAME    VARCHAR(254) NOT NULL,
     EMAIL   VARCHAR(512) NOT NULL,
     CONSTRAINT USERS_PK
@@ -22,16 +39,21 @@ CREATE TABLE IF NOT EXISTS USERS
 
 CREATE TABLE IF NOT EXISTS LOCATIONS
 (
-    LOCATION_ID BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    LOCATION_ID BIGINT NOT NULL,
     LAT   NUMERIC(10,6) NOT NULL,
     LON   NUMERIC(10,6) NOT NULL,
+    CELL  BIGINT,
     CONSTRAINT LOCATIONS_PK
-        PRIMARY KEY (LOCATION_ID)
+        PRIMARY KEY (LOCATION_ID),
+    CONSTRAINT LOCATIONS_LAT_LON_UNIQUE
+        UNIQUE (LAT, LON)
 );
 
+CREATE INDEX IF NOT EXISTS LOCATIONS_CELL_IDX ON LOCATIONS (CELL);
+
 CREATE TABLE IF NOT EXISTS CATEGORIES
 (
-    CATEGORY_ID BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    CATEGORY_ID BIGINT NOT NULL,
     NAME    VARCHAR(128) NOT NULL,
     CONSTRAINT CATEGORIES_PK PRIMARY KEY (CATEGORY_ID),
     CONSTRAINT CATEGORY_NAME_UNIQUE UNIQUE (NAME)
@@ -39,7 +61,7 @@ CREATE TABLE IF NOT EXISTS CATEGORIES
 
 CREATE TABLE IF NOT EXISTS EVENTS
 (
-    EVENT_ID BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    EVENT_ID BIGINT NOT NULL,
     ANNOTATION VARCHAR(2000) NOT NULL,
     CATEGORY_ID BIGINT NOT NULL,
     DESCRIPTION VARCHAR(7000) NOT NULL,
@@ -65,9 +87,11 @@ CREATE TABLE IF NOT EXISTS EVENTS
     CONSTRAINT EVENTS_INITIATOR_ID_FK_USERS_USER_ID
         FOREIGN KEY (INITIATOR_ID) REFERENCES USERS (USER_ID) ON DELETE CASCADE);
 
+CREATE INDEX IF NOT EXISTS EVENTS_LOCATION_ID_IDX ON EVENTS (LOCATION_ID);
+
 CREATE TABLE IF NOT EXISTS COMPILATIONS
 (
-    COMPILATION_ID BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    COMPILATION_ID BIGINT NOT NULL,
     TITLE  VARCHAR(128) NOT NULL,
     PINNED BOOLEAN NOT NULL,
     CONSTRAINT COMPILATIONS_PK PRIMARY KEY (COMPILATION_ID)
@@ -85,7 +109,7 @@ CREATE TABLE IF NOT EXISTS COMPILATIONS_EVENTS
 
 CREATE TABLE IF NOT EXISTS REQUESTS
 (
-    REQUEST_ID BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    REQUEST_ID BIGINT NOT NULL,
     CREATED TIMESTAMP NOT NULL,
     EVENT_ID BIGINT NOT NULL,
     REQUESTER_ID BIGINT NOT NULL,
@@ -117,15 +141,37 @@ CREATE TABLE IF NOT EXISTS LIKES_LOCATIONS
 (
     LOCATION_ID BIGINT NOT NULL,
     USER_ID BIGINT NOT NULL,
-    CONSTRAINT LIKES_PK
+    CONSTRAINT LIKES_LOCATIONS_PK
         PRIMARY KEY (LOCATION_ID, USER_ID),
-    CONSTRAINT LIKES_EVENT_ID_FK_EVENTS_EVENT_ID
-        FOREIGN KEY (LOCATION_ID) REFERENCES EVENTS (EVENT_ID) ON DELETE CASCADE,
-    CONSTRAINT LIKES_EVENT_USER_ID_FK_USERS_USER_ID
-        FOREIGN KEY (USER_ID) REFERENCES EVENTS (EVENT_ID) ON DELETE CASCADE
+    CONSTRAINT LIKES_LOCATIONS_LOCATION_ID_FK_LOCATIONS_LOCATION_ID
+        FOREIGN KEY (LOCATION_ID) REFERENCES LOCATIONS (LOCATION_ID) ON DELETE CASCADE,
+    CONSTRAINT LIKES_LOCATIONS_USER_ID_FK_USERS_USER_ID
+        FOREIGN KEY (USER_ID) REFERENCES USERS (USER_ID) ON DELETE CASCADE
 );
 
+CREATE TABLE IF NOT EXISTS EVENT_VIEWS
+(
+    EVENT_ID BIGINT NOT NULL,
+    VIEWS BIGINT NOT NULL,
+    CONSTRAINT EVENT_VIEWS_PK
+        PRIMARY KEY (EVENT_ID)
+);
 
+CREATE INDEX IF NOT EXISTS EVENT_VIEWS_VIEWS_IDX ON EVENT_VIEWS (VIEWS DESC);
 
+CREATE TABLE IF NOT EXISTS VIEWS_SYNC_STATE
+(
+    NAME VARCHAR(64) NOT NULL,
+    WATERMARK BIGINT NOT NULL,
+    CONSTRAINT VIEWS_SYNC_STATE_PK
+        PRIMARY KEY (NAME)
+);
 
-
+CREATE TABLE IF NOT EXISTS LIKE_COUNTERS
+(
+    TARGET VARCHAR(16) NOT NULL,
+    TARGET_ID BIGINT NOT NULL,
+    LIKES BIGINT NOT NULL,
+    CONSTRAINT LIKE_COUNTERS_PK
+        PRIMARY KEY (TARGET, TARGET_ID)
+);
@@ -0,0 +1,77 @@
+package ru.practicum.ewm;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.client.StatClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Повторный запрос той же публичной страницы категорий или подборок отдаётся из кэша, не обращаясь к базе:
+ * число подготовленных Hibernate запросов между двумя одинаковыми вызовами не меняется.
+ * У каждой проверки свой размер страницы, чтобы не получить страницу, закэшированную другим тестом контекста.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PublicPageCachingTest {
+
+    private static final long EVENT_ID = 21;
+    private static final long COMPILATION_ID = 21;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private StatClient statClient;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Данные общие для обоих тестов класса: контекст и база у них одни
+        Integer events = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM EVENTS WHERE EVENT_ID = ?", Integer.class, EVENT_ID);
+        if (events == 0) {
+            TestData.insertPublishedEvent(jdbcTemplate, EVENT_ID);
+            TestData.insertCompilation(jdbcTemplate, COMPILATION_ID, EVENT_ID);
+        }
+    }
+
+    @Test
+    void repeatedCategoryPageDoesNotQueryDatabase() {
+        assertSecondCallIsCached("/categories?from=0&size=7", "category" + EVENT_ID);
+    }
+
+    @Test
+    void repeatedCompilationPageDoesNotQueryDatabase() {
+        assertSecondCallIsCached("/compilations?from=0&size=8", "compilation" + COMPILATION_ID);
+    }
+
+    private void assertSecondCallIsCached(String path, String expectedContent) {
+        ResponseEntity<String> first = restTemplate.getForEntity(path, String.class);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody()).contains(expectedContent);
+
+        long statementsBefore = statistics.getPrepareStatementCount();
+        ResponseEntity<String> second = restTemplate.getForEntity(path, String.class);
+
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsBefore);
+    }
+}
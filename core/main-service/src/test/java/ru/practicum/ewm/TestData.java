@@ -0,0 +1,49 @@
+package ru.practicum.ewm;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строки для тестов сервиса, записанные в обход кэшей и сервисов.
+ * Идентификаторы задаются явно и не пересекаются с выданными последовательностями (шаг 50 начиная с 1).
+ */
+@UtilityClass
+public class TestData {
+
+    public static void insertUser(JdbcTemplate jdbcTemplate, long userId) {
+        jdbcTemplate.update("INSERT INTO USERS (USER_ID, NAME, EMAIL) VALUES (?, ?, ?)",
+                userId, "user" + userId, "user" + userId + "@mail.ru");
+    }
+
+    public static void insertCategory(JdbcTemplate jdbcTemplate, long categoryId) {
+        jdbcTemplate.update("INSERT INTO CATEGORIES (CATEGORY_ID, NAME) VALUES (?, ?)",
+                categoryId, "category" + categoryId);
+    }
+
+    /**
+     * Опубликованное событие вместе с инициатором, категорией и локацией с тем же id.
+     */
+    public static void insertPublishedEvent(JdbcTemplate jdbcTemplate, long eventId) {
+        insertUser(jdbcTemplate, eventId);
+        insertCategory(jdbcTemplate, eventId);
+        jdbcTemplate.update("INSERT INTO LOCATIONS (LOCATION_ID, LAT, LON, CELL) VALUES (?, 55.75, 37.61, 0)",
+                eventId);
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("""
+                        INSERT INTO EVENTS (EVENT_ID, ANNOTATION, CATEGORY_ID, DESCRIPTION, EVENT_DATE, CREATED_ON,
+                            INITIATOR_ID, LOCATION_ID, PAID, PARTICIPANT_LIMIT, PUBLISHED_ON, REQUEST_MODERATION,
+                            STATE, TITLE)
+                        VALUES (?, 'annotation', ?, 'description', ?, ?, ?, ?, FALSE, 0, ?, FALSE, 'PUBLISHED', ?)""",
+                eventId, eventId, now.plusDays(7), now.minusDays(1), eventId, eventId, now.minusHours(1),
+                "event" + eventId);
+    }
+
+    public static void insertCompilation(JdbcTemplate jdbcTemplate, long compilationId, long eventId) {
+        jdbcTemplate.update("INSERT INTO COMPILATIONS (COMPILATION_ID, TITLE, PINNED) VALUES (?, ?, FALSE)",
+                compilationId, "compilation" + compilationId);
+        jdbcTemplate.update("INSERT INTO COMPILATIONS_EVENTS (COMPILATION_ID, EVENT_ID) VALUES (?, ?)",
+                compilationId, eventId);
+    }
+}
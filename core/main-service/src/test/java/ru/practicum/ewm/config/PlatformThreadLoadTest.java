@@ -0,0 +1,12 @@
+package ru.practicum.ewm.config;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadLoadTest extends ThreadModeLoadTestBase {
+
+    @Override
+    protected String mode() {
+        return "platform";
+    }
+}
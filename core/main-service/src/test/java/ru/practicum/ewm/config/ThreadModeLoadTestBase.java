@@ -0,0 +1,202 @@
+package ru.practicum.ewm.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.client.StatClient;
+import ru.practicum.ewm.TestData;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Нагрузочный тест GET /events/{id} при большом числе одновременных клиентов: запрос читает базу
+ * и дважды обращается к stats-server, заглушка которого отвечает с сетевой задержкой.
+ * Наследники запускают сервис на потоках платформы и на виртуальных потоках; пропускная способность,
+ * перцентили задержки и наибольшее число занятых соединений дописываются в target/benchmarks/thread-mode.csv.
+ * Запуск: mvn -Pbenchmark -pl core/main-service -am test
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+abstract class ThreadModeLoadTestBase {
+
+    private static final long EVENT_ID = 1;
+    private static final Duration REMOTE_LATENCY = Duration.ofMillis(20);
+    private static final int CONCURRENCY = 1000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int WARMUP_CONCURRENCY = 50;
+    private static final int WARMUP_REQUESTS_PER_CLIENT = 20;
+    private static final Path RESULTS = Path.of("target", "benchmarks", "thread-mode.csv");
+    private static final String RESULTS_HEADER =
+            "mode,concurrency,requests,errors,throughput_rps,p50_ms,p99_ms,p999_ms,max_active_connections";
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size}")
+    private int maximumPoolSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private StatClient statClient;
+
+    protected abstract String mode();
+
+    @BeforeEach
+    void setUp() {
+        TestData.insertPublishedEvent(jdbcTemplate, EVENT_ID);
+        // Поток запроса ждёт заглушку так же, как ждал бы ответа stats-server по сети
+        doAnswer(invocation -> {
+            Thread.sleep(REMOTE_LATENCY);
+            return null;
+        }).when(statClient).saveHit(any());
+        when(statClient.getStats(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(REMOTE_LATENCY);
+            return List.of();
+        });
+    }
+
+    @Test
+    void eventDetailUnderHighConcurrency() throws Exception {
+        URI uri = URI.create("http://localhost:" + port + "/events/" + EVENT_ID);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clients)
+                    .build();
+            load(httpClient, clients, uri, WARMUP_CONCURRENCY, WARMUP_REQUESTS_PER_CLIENT);
+            LoadResult result = load(httpClient, clients, uri, CONCURRENCY, REQUESTS_PER_CLIENT);
+
+            log.info("{} threads: {} requests, {} errors, {} rps, p50 {} ms, p99 {} ms, p99.9 {} ms, "
+                            + "max active connections {}", mode(), result.requests(), result.errors(),
+                    format(result.throughput()), format(result.percentileMillis(0.5)),
+                    format(result.percentileMillis(0.99)), format(result.percentileMillis(0.999)),
+                    result.maxActiveConnections());
+            record(result);
+
+            assertThat(result.errors()).isZero();
+            assertThat(result.maxActiveConnections()).isLessThanOrEqualTo(maximumPoolSize);
+        }
+    }
+
+    private LoadResult load(HttpClient httpClient, ExecutorService clients, URI uri,
+                            int concurrency, int requestsPerClient) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger maxActiveConnections = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = Thread.ofVirtual().start(() -> {
+            while (running.get()) {
+                maxActiveConnections.accumulateAndGet(pool.getHikariPoolMXBean().getActiveConnections(), Math::max);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long[][] latencies = new long[concurrency][requestsPerClient];
+        List<Future<?>> futures = new ArrayList<>(concurrency);
+        long started = System.nanoTime();
+        for (int client = 0; client < concurrency; client++) {
+            long[] clientLatencies = latencies[client];
+            futures.add(clients.submit(() -> {
+                for (int i = 0; i < requestsPerClient; i++) {
+                    long requestStarted = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    clientLatencies[i] = System.nanoTime() - requestStarted;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        running.set(false);
+        sampler.join();
+
+        long[] sorted = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new LoadResult(concurrency, sorted, errors.get(), elapsed, maxActiveConnections.get());
+    }
+
+    private void record(LoadResult result) throws IOException {
+        Files.createDirectories(RESULTS.getParent());
+        if (!Files.exists(RESULTS)) {
+            Files.writeString(RESULTS, RESULTS_HEADER + System.lineSeparator());
+        }
+        String line = String.join(",", mode(), String.valueOf(result.concurrency()),
+                String.valueOf(result.requests()), String.valueOf(result.errors()), format(result.throughput()),
+                format(result.percentileMillis(0.5)), format(result.percentileMillis(0.99)),
+                format(result.percentileMillis(0.999)), String.valueOf(result.maxActiveConnections()));
+        Files.writeString(RESULTS, line + System.lineSeparator(), StandardOpenOption.APPEND);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private record LoadResult(int concurrency, long[] sortedLatencies, int errors, long elapsedNanos,
+                              int maxActiveConnections) {
+
+        int requests() {
+            return sortedLatencies.length;
+        }
+
+        double throughput() {
+            return requests() * 1e9 / elapsedNanos;
+        }
+
+        double percentileMillis(double percentile) {
+            int index = Math.min(sortedLatencies.length - 1, (int) Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.ewm.config;
+
+import org.springframework.test.context.TestPropertySource;
+
+// Вместе с виртуальными потоками включается семафор ConnectionLimitingDataSource перед пулом Hikari
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadLoadTest extends ThreadModeLoadTestBase {
+
+    @Override
+    protected String mode() {
+        return "virtual";
+    }
+}
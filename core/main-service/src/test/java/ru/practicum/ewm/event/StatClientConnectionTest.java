@@ -0,0 +1,86 @@
+package ru.practicum.ewm.event;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.client.StatClient;
+import ru.practicum.ewm.TestData;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Публичные запросы событий обращаются к stats-server только после того, как соединение с базой возвращено в пул:
+ * заглушка StatClient запоминает число занятых соединений Hikari в момент каждого вызова.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StatClientConnectionTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private StatClient statClient;
+
+    private final List<String> remoteCalls = new CopyOnWriteArrayList<>();
+    private final List<Integer> activeConnections = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            recordCall("saveHit");
+            return null;
+        }).when(statClient).saveHit(any());
+        when(statClient.getStats(any(), any(), any(), any())).thenAnswer(invocation -> {
+            recordCall("getStats");
+            return List.of();
+        });
+    }
+
+    @Test
+    void getByIdCallsStatsServerWithoutConnection() {
+        TestData.insertPublishedEvent(jdbcTemplate, 11);
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/events/11", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(remoteCalls).contains("saveHit", "getStats");
+        assertThat(activeConnections).containsOnly(0);
+    }
+
+    @Test
+    void getAllCallsStatsServerWithoutConnection() {
+        TestData.insertPublishedEvent(jdbcTemplate, 12);
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/events", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("event12");
+        assertThat(remoteCalls).contains("saveHit", "getStats");
+        assertThat(activeConnections).containsOnly(0);
+    }
+
+    private void recordCall(String method) throws Exception {
+        remoteCalls.add(method);
+        activeConnections.add(dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections());
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.ewm.location.repository;
+
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+class LocationUpsertRepositoryH2Test extends LocationUpsertRepositoryTestBase {
+
+    private static final DataSource DATA_SOURCE =
+            new DriverManagerDataSource("jdbc:h2:mem:location-upsert;DB_CLOSE_DELAY=-1", "sa", "");
+
+    @Override
+    protected DataSource dataSource() {
+        return DATA_SOURCE;
+    }
+
+    @Override
+    protected boolean expectedPostgres() {
+        return false;
+    }
+}
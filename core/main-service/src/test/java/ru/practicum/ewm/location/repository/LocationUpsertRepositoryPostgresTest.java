@@ -0,0 +1,26 @@
+package ru.practicum.ewm.location.repository;
+
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+
+// Без Docker тесты пропускаются, а не падают
+@Testcontainers(disabledWithoutDocker = true)
+class LocationUpsertRepositoryPostgresTest extends LocationUpsertRepositoryTestBase {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16.1");
+
+    @Override
+    protected DataSource dataSource() {
+        return new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+
+    @Override
+    protected boolean expectedPostgres() {
+        return true;
+    }
+}
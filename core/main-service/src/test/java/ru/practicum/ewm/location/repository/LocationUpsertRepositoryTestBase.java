@@ -0,0 +1,147 @@
+package ru.practicum.ewm.location.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.practicum.jdbc.DatabaseDialect;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Общие проверки upsert-запросов; наследники подставляют базу конкретной СУБД.
+ * Схема каждый раз пересоздаётся тем же schema.sql, что и при старте сервиса.
+ */
+abstract class LocationUpsertRepositoryTestBase {
+
+    private static final long USER_ID = 1;
+    private static final long LOCATION_ID = 1;
+
+    private JdbcTemplate jdbcTemplate;
+    private DatabaseDialect databaseDialect;
+    private LocationUpsertRepositoryImpl repository;
+
+    protected abstract DataSource dataSource();
+
+    protected abstract boolean expectedPostgres();
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = dataSource();
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        databaseDialect = new DatabaseDialect(dataSource);
+        repository = new LocationUpsertRepositoryImpl(jdbcTemplate, databaseDialect);
+
+        jdbcTemplate.update("INSERT INTO USERS (USER_ID, NAME, EMAIL) VALUES (?, 'user', 'user@mail.ru')", USER_ID);
+        jdbcTemplate.update("INSERT INTO LOCATIONS (LOCATION_ID, LAT, LON, CELL) VALUES (?, 55.75, 37.61, 0)",
+                LOCATION_ID);
+    }
+
+    @Test
+    void detectsDialect() {
+        assertThat(databaseDialect.isPostgres()).isEqualTo(expectedPostgres());
+    }
+
+    @Test
+    void addLikeIsIdempotent() {
+        assertThat(repository.addLike(USER_ID, LOCATION_ID)).isTrue();
+        assertThat(repository.addLike(USER_ID, LOCATION_ID)).isFalse();
+
+        assertThat(countLikes()).isEqualTo(1);
+    }
+
+    @Test
+    void addLikesCountsOnlyNewLikes() {
+        insertLocations(LOCATION_ID + 1, LOCATION_ID + 2);
+        repository.addLike(USER_ID, LOCATION_ID);
+
+        List<Long> locationIds = List.of(LOCATION_ID, LOCATION_ID + 1, LOCATION_ID + 2, LOCATION_ID + 1);
+
+        assertThat(repository.addLikes(USER_ID, locationIds)).isEqualTo(2);
+        assertThat(repository.addLikes(USER_ID, List.of(LOCATION_ID + 1, LOCATION_ID + 2))).isZero();
+        assertThat(repository.addLikes(USER_ID, List.of())).isZero();
+
+        assertThat(countUserLikes()).isEqualTo(3);
+    }
+
+    @Test
+    void addLikesSplitsLargeInputIntoChunks() {
+        int size = LocationUpsertRepositoryImpl.LIKES_CHUNK_SIZE + 1;
+        List<Long> locationIds = LongStream.rangeClosed(LOCATION_ID + 1, LOCATION_ID + size).boxed().toList();
+        insertLocations(locationIds.stream().mapToLong(Long::longValue).toArray());
+
+        assertThat(repository.addLikes(USER_ID, locationIds)).isEqualTo(size);
+        assertThat(repository.addLikes(USER_ID, locationIds)).isZero();
+
+        assertThat(countUserLikes()).isEqualTo(size);
+    }
+
+    @Test
+    void addLikesRejectsUnknownLocation() {
+        assertThatThrownBy(() -> repository.addLikes(USER_ID, List.of(LOCATION_ID, LOCATION_ID + 1)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void addLikeRejectsUnknownLocation() {
+        assertThatThrownBy(() -> repository.addLike(USER_ID, LOCATION_ID + 1))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void addLikeRejectsUnknownUser() {
+        assertThatThrownBy(() -> repository.addLike(USER_ID + 1, LOCATION_ID))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void deletingLocationDeletesItsLikes() {
+        repository.addLike(USER_ID, LOCATION_ID);
+
+        jdbcTemplate.update("DELETE FROM LOCATIONS WHERE LOCATION_ID = ?", LOCATION_ID);
+
+        assertThat(countLikes()).isZero();
+    }
+
+    @Test
+    void insertIfAbsentKeepsExistingLocation() {
+        BigDecimal lat = new BigDecimal("10.500000");
+        BigDecimal lon = new BigDecimal("20.250000");
+
+        repository.insertIfAbsent(lat, lon, 7);
+        repository.insertIfAbsent(lat, lon, 7);
+
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM LOCATIONS WHERE LAT = ? AND LON = ?", Integer.class, lat, lon);
+        assertThat(count).isEqualTo(1);
+    }
+
+    // Координаты у каждой локации свои: на LAT, LON стоит ограничение уникальности
+    private void insertLocations(long... locationIds) {
+        jdbcTemplate.batchUpdate("INSERT INTO LOCATIONS (LOCATION_ID, LAT, LON, CELL) VALUES (?, ?, 37.61, 0)",
+                LongStream.of(locationIds)
+                        .mapToObj(locationId -> new Object[]{locationId, new BigDecimal(locationId).movePointLeft(4)})
+                        .toList());
+    }
+
+    private int countUserLikes() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM LIKES_LOCATIONS WHERE USER_ID = ?", Integer.class, USER_ID);
+        return count == null ? 0 : count;
+    }
+
+    private int countLikes() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM LIKES_LOCATIONS WHERE LOCATION_ID = ?", Integer.class, LOCATION_ID);
+        return count == null ? 0 : count;
+    }
+}
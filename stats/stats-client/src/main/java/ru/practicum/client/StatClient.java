@@ -1,10 +1,14 @@
 package ru.practicum.client;
 
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import ru.practicum.HitBucketDto;
+import ru.practicum.HitChangesDto;
 import ru.practicum.HitDto;
 import ru.practicum.HitStatDto;
 
@@ -21,4 +25,25 @@ public interface StatClient {
                               @RequestParam(value = "end", required = false, defaultValue = "") String end,
                               @RequestParam(value = "uris", required = false, defaultValue = "") List<String> uris,
                               @RequestParam(value = "unique", defaultValue = "false") Boolean unique);
+
+    @GetMapping("stats/changes")
+    HitChangesDto getChanges(@RequestParam(value = "afterId") long afterId,
+                             @RequestParam(value = "limit") int limit,
+                             @RequestParam(value = "uriPrefix", required = false) String uriPrefix);
+
+    @GetMapping("stats/histogram")
+    List<HitBucketDto> getHistogram(@RequestParam(value = "start") String start,
+                                    @RequestParam(value = "end") String end,
+                                    @RequestParam(value = "uris", required = false) List<String> uris,
+                                    @RequestParam(value = "interval", defaultValue = "hour") String interval,
+                                    @RequestParam(value = "unique", defaultValue = "false") Boolean unique);
+
+    // Тело не декодируется: ответ читается построчно через StatStreamClient
+    @GetMapping(value = "stats/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Response streamStats(@RequestParam(value = "start", required = false) String start,
+                         @RequestParam(value = "end", required = false) String end,
+                         @RequestParam(value = "uris", required = false) List<String> uris,
+                         @RequestParam(value = "unique", defaultValue = "false") Boolean unique,
+                         @RequestParam(value = "limit", required = false) Integer limit,
+                         @RequestParam(value = "orderBy", required = false) String orderBy);
 }
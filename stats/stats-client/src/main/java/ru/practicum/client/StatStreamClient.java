@@ -0,0 +1,53 @@
+package ru.practicum.client;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import feign.Response;
+import org.springframework.stereotype.Component;
+import ru.practicum.HitStatDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Потоковое чтение статистики из GET /stats/stream: строки NDJSON разбираются по мере получения
+ * и сразу передаются обработчику, весь ответ в памяти не собирается.
+ */
+@Component
+public class StatStreamClient {
+
+    private final StatClient statClient;
+    private final ObjectReader statReader;
+
+    public StatStreamClient(StatClient statClient, ObjectMapper objectMapper) {
+        this.statClient = statClient;
+        this.statReader = objectMapper.readerFor(HitStatDto.class);
+    }
+
+    /**
+     * @return число полученных строк статистики
+     */
+    public long streamStats(String start, String end, List<String> uris, boolean unique,
+                            Integer limit, String orderBy, Consumer<HitStatDto> consumer) {
+        try (Response response = statClient.streamStats(start, end, uris, unique, limit, orderBy)) {
+            if (response.status() != 200 || response.body() == null) {
+                throw new IllegalStateException("Stats stream request failed with status " + response.status());
+            }
+            long count = 0;
+            try (InputStream body = response.body().asInputStream();
+                 MappingIterator<HitStatDto> stats = statReader.readValues(body)) {
+                while (stats.hasNextValue()) {
+                    consumer.accept(stats.nextValue());
+                    count++;
+                }
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read stats stream", e);
+        }
+    }
+}
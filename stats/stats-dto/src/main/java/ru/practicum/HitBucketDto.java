@@ -0,0 +1,16 @@
+package ru.practicum;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class HitBucketDto {
+    private String app;
+    private String uri;
+    private String start;
+    private Long hits;
+    private Long uniqueHits;
+}
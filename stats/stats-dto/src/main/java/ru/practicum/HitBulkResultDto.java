@@ -0,0 +1,14 @@
+package ru.practicum;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class HitBulkResultDto {
+    private Long received;
+    private Long copied;
+    private Long inserted;
+}
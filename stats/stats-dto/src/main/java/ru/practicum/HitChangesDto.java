@@ -0,0 +1,17 @@
+package ru.practicum;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class HitChangesDto {
+    private Long fromId;
+    private Long toId;
+    private List<HitStatDto> stats;
+    private Boolean hasMore;
+}
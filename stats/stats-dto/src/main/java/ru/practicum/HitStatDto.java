@@ -1,5 +1,6 @@
 package ru.practicum;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,4 +12,13 @@ public class HitStatDto {
     private String app;
     private String uri;
     private Integer hits;
+    // Границы 95% доверительного интервала; заполняются только для выборочной оценки (GET /stats?sample=)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer hitsLow;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer hitsHigh;
+
+    public HitStatDto(String app, String uri, Integer hits) {
+        this(app, uri, hits, null, null);
+    }
 }
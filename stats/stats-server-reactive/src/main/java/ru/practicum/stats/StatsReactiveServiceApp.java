@@ -0,0 +1,12 @@
+package ru.practicum.stats;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class StatsReactiveServiceApp {
+    public static void main(String[] args) {
+        SpringApplication.run(StatsReactiveServiceApp.class, args);
+    }
+
+}
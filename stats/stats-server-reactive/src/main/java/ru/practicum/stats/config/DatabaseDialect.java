@@ -0,0 +1,24 @@
+package ru.practicum.stats.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * СУБД, к которой подключён сервис, по метаданным фабрики соединений R2DBC.
+ * Повторяет ru.practicum.jdbc.DatabaseDialect блокирующего stats-server, которому нужен DataSource.
+ */
+@Component
+public class DatabaseDialect {
+
+    private static final String POSTGRES_PRODUCT_NAME = "PostgreSQL";
+
+    private final boolean postgres;
+
+    public DatabaseDialect(ConnectionFactory connectionFactory) {
+        this.postgres = POSTGRES_PRODUCT_NAME.equalsIgnoreCase(connectionFactory.getMetadata().getName());
+    }
+
+    public boolean isPostgres() {
+        return postgres;
+    }
+}
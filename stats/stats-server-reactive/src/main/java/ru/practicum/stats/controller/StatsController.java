@@ -0,0 +1,99 @@
+package ru.practicum.stats.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.HitBucketDto;
+import ru.practicum.HitBulkResultDto;
+import ru.practicum.HitChangesDto;
+import ru.practicum.HitDto;
+import ru.practicum.HitStatDto;
+import ru.practicum.stats.ErrorResponse;
+import ru.practicum.stats.service.HitIngestService;
+import ru.practicum.stats.service.StatsQuery;
+import ru.practicum.stats.service.StatsService;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Тот же контракт, что у блокирующего stats-server, кроме приближённой статистики:
+ * GET /stats с параметром sample отвечает 501. Архива хитов и журнального хранилища здесь нет,
+ * все хиты остаются в таблице hits, поэтому настройки stats.archive и stats.storage не действуют.
+ */
+@RestController
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final StatsService statsService;
+    private final HitIngestService hitIngestService;
+
+    @PostMapping("/hit")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<HitDto> saveHit(@RequestBody HitDto hitDto) {
+        return statsService.saveHit(hitDto);
+    }
+
+    @PostMapping(value = "/hits/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<HitBulkResultDto> saveHits(@RequestBody Flux<HitDto> hits) {
+        return hitIngestService.saveHits(hits);
+    }
+
+    @GetMapping("/stats")
+    public Flux<HitStatDto> getHits(@RequestParam String start,
+                                    @RequestParam String end,
+                                    @RequestParam(required = false) List<String> uris,
+                                    @RequestParam(required = false, defaultValue = "false") Boolean unique,
+                                    @RequestParam(required = false) Double sample) {
+        if (sample != null) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED,
+                    "Sampled stats are not supported by the reactive stats server");
+        }
+        return statsService.getHits(start, end, uris, unique);
+    }
+
+    @GetMapping("/stats/changes")
+    public Mono<HitChangesDto> getChanges(@RequestParam(defaultValue = "0") long afterId,
+                                          @RequestParam(defaultValue = "10000") int limit,
+                                          @RequestParam(required = false) String uriPrefix) {
+        return statsService.getChanges(afterId, limit, uriPrefix);
+    }
+
+    @GetMapping("/stats/histogram")
+    public Flux<HitBucketDto> getHistogram(@RequestParam String start,
+                                           @RequestParam String end,
+                                           @RequestParam(required = false) List<String> uris,
+                                           @RequestParam(required = false, defaultValue = "hour") String interval,
+                                           @RequestParam(required = false, defaultValue = "false") Boolean unique) {
+        return statsService.getHistogram(start, end, uris, interval, unique);
+    }
+
+    @GetMapping(value = "/stats/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<HitStatDto> streamHits(@RequestParam(required = false) String start,
+                                       @RequestParam(required = false) String end,
+                                       @RequestParam(required = false) List<String> uris,
+                                       @RequestParam(required = false, defaultValue = "false") Boolean unique,
+                                       @RequestParam(required = false) Integer limit,
+                                       @RequestParam(required = false) String orderBy) {
+        // Параметры проверяются до начала потока, чтобы ошибка пришла обычным ответом 400
+        StatsQuery query = StatsQuery.of(start, end, uris, unique, limit, orderBy);
+        return statsService.streamHits(query);
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleException(final IllegalArgumentException e) {
+        ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
+        StringWriter sw = new StringWriter();
+        PrintWriter pw = new PrintWriter(sw);
+        e.printStackTrace(pw);
+        errorResponse.setStacktrace(pw.toString());
+        return errorResponse;
+    }
+}
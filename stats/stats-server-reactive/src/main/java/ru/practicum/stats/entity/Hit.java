@@ -0,0 +1,28 @@
+package ru.practicum.stats.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "hits")
+public class Hit {
+    @Id
+    private Long id;
+    @Column("app_id")
+    private Integer appId;
+    @Column("uri_id")
+    private Integer uriId;
+    private String ip;
+    @Column("ts")
+    private LocalDateTime timestamp;
+}
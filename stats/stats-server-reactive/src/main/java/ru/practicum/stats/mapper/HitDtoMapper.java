@@ -0,0 +1,37 @@
+package ru.practicum.stats.mapper;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.HitDto;
+import ru.practicum.stats.entity.Hit;
+
+import java.time.LocalDateTime;
+
+import static ru.practicum.stats.utils.Constants.formatter;
+
+@UtilityClass
+public class HitDtoMapper {
+
+    public static HitDto toHitDto(Hit hit, String app, String uri) {
+        String dateTime = hit.getTimestamp().format(formatter);
+
+        return new HitDto(
+                hit.getId(),
+                app,
+                uri,
+                hit.getIp(),
+                dateTime
+        );
+    }
+
+    public static Hit dtoToHit(HitDto hitDto, int appId, int uriId) {
+
+        LocalDateTime localDateTime = LocalDateTime.parse(hitDto.getTimestamp(), formatter);
+        Hit hit = new Hit();
+        hit.setId(hitDto.getId());
+        hit.setAppId(appId);
+        hit.setUriId(uriId);
+        hit.setIp(hitDto.getIp());
+        hit.setTimestamp(localDateTime);
+        return hit;
+    }
+}
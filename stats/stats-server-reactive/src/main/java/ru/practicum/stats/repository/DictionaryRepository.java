@@ -0,0 +1,62 @@
+package ru.practicum.stats.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import ru.practicum.stats.config.DatabaseDialect;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Таблицы-словари apps и uris. Вставка идемпотентна, поэтому её можно выполнять вне транзакции записи хита:
+ * строка словаря без хитов ничему не мешает.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DictionaryRepository {
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Dictionary {
+        APPS("apps", "name"),
+        URIS("uris", "uri");
+
+        private final String table;
+        private final String column;
+    }
+
+    private final DatabaseClient databaseClient;
+    private final DatabaseDialect databaseDialect;
+
+    public Mono<Void> insertIfAbsent(Dictionary dictionary, String value) {
+        // H2 не поддерживает ON CONFLICT вне режима совместимости, MERGE ... WHEN NOT MATCHED даёт ту же семантику
+        String sql = databaseDialect.isPostgres()
+                ? "INSERT INTO " + dictionary.getTable() + " (" + dictionary.getColumn() + ") VALUES (:value) "
+                + "ON CONFLICT (" + dictionary.getColumn() + ") DO NOTHING"
+                : "MERGE INTO " + dictionary.getTable() + " d USING (VALUES (CAST(:value AS VARCHAR(512)))) AS s (v) "
+                + "ON d." + dictionary.getColumn() + " = s.v "
+                + "WHEN NOT MATCHED THEN INSERT (" + dictionary.getColumn() + ") VALUES (s.v)";
+        return databaseClient.sql(sql)
+                .bind("value", value)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    public Mono<Map<String, Integer>> findIds(Dictionary dictionary, Collection<String> values) {
+        if (values.isEmpty()) {
+            return Mono.just(new HashMap<>());
+        }
+        return databaseClient.sql("SELECT id, " + dictionary.getColumn() + " AS v FROM " + dictionary.getTable()
+                        + " WHERE " + dictionary.getColumn() + " IN (:values)")
+                .bind("values", List.copyOf(values))
+                .map((row, metadata) -> Map.entry(row.get("v", String.class), row.get("id", Integer.class)))
+                .all()
+                .collect(HashMap::new, (ids, entry) -> ids.put(entry.getKey(), entry.getValue()));
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.stats.repository;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.stats.entity.Hit;
+
+import java.util.List;
+
+/**
+ * Запись порции хитов одним пакетом привязок: драйвер отправляет все строки без ожидания ответа на каждую.
+ * COPY не используется: порции любого размера пишутся через INSERT, поэтому в ответе /hits/bulk copied всегда 0.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HitBulkRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO hits (app_id, uri_id, ip, ts) VALUES ($1, $2, $3, $4)";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * @return число записанных строк
+     */
+    public Mono<Long> insert(List<Hit> hits) {
+        if (hits.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_SQL);
+                    for (int i = 0; i < hits.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        Hit hit = hits.get(i);
+                        statement.bind(0, hit.getAppId())
+                                .bind(1, hit.getUriId())
+                                .bind(2, hit.getIp())
+                                .bind(3, hit.getTimestamp());
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .reduce(0L, Long::sum);
+    }
+}
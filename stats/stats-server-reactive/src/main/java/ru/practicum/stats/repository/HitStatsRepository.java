@@ -0,0 +1,105 @@
+package ru.practicum.stats.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import ru.practicum.HitBucketDto;
+import ru.practicum.HitStatDto;
+import ru.practicum.stats.service.HistogramInterval;
+import ru.practicum.stats.service.StatsOrder;
+import ru.practicum.stats.service.StatsQuery;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static ru.practicum.stats.utils.Constants.formatter;
+
+/**
+ * Агрегация выполняется в базе, строки результата отдаются потоком по мере чтения курсора.
+ * Группировка идёт по целочисленным идентификаторам словарей, имена подставляются уже к агрегатам.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HitStatsRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * @param uriIds идентификаторы uri для фильтра или null, если фильтра нет
+     */
+    public Flux<HitStatDto> aggregate(StatsQuery query, Collection<Integer> uriIds) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT a.name AS app, u.uri AS uri, g.hits AS hits FROM (")
+                .append("SELECT app_id, uri_id, ")
+                .append(query.unique() ? "COUNT(DISTINCT ip)" : "COUNT(ip)")
+                .append(" AS hits FROM hits WHERE 1 = 1");
+        if (query.hasRange()) {
+            sql.append(" AND ts > :start AND ts < :end");
+            params.put("start", query.start());
+            params.put("end", query.end());
+        }
+        if (uriIds != null) {
+            sql.append(" AND uri_id IN (:uriIds)");
+            params.put("uriIds", List.copyOf(uriIds));
+        }
+        sql.append(" GROUP BY app_id, uri_id) g")
+                .append(" JOIN apps a ON a.id = g.app_id JOIN uris u ON u.id = g.uri_id ORDER BY ")
+                .append(query.orderBy() == StatsOrder.URI ? "u.uri, a.name" : "g.hits DESC, g.app_id, g.uri_id");
+        if (query.limit() != null) {
+            sql.append(" LIMIT :limit");
+            params.put("limit", query.limit());
+        }
+
+        return databaseClient.sql(sql.toString())
+                .bindValues(params)
+                .map((row, metadata) -> new HitStatDto(
+                        row.get("app", String.class),
+                        row.get("uri", String.class),
+                        row.get("hits", Long.class).intValue()))
+                .all();
+    }
+
+    /**
+     * Гистограмма за один проход по hits: строки группируются по идентификаторам app, uri и началу корзины.
+     * Пустые корзины не возвращаются.
+     *
+     * @param uriIds идентификаторы uri для фильтра или null, если фильтра нет
+     */
+    public Flux<HitBucketDto> getHistogram(LocalDateTime start, LocalDateTime end, Collection<Integer> uriIds,
+                                           HistogramInterval interval, boolean unique) {
+        // Единица берётся из перечисления, а не из запроса клиента, поэтому подставляется в текст SQL
+        String bucket = "DATE_TRUNC('" + interval.getTruncUnit() + "', ts)";
+        StringBuilder sql = new StringBuilder("SELECT a.name AS app, u.uri AS uri, g.bucket AS bucket, g.hits AS hits")
+                .append(unique ? ", g.unique_hits AS unique_hits" : "")
+                .append(" FROM (SELECT app_id, uri_id, ")
+                .append(bucket).append(" AS bucket, COUNT(ip) AS hits");
+        if (unique) {
+            sql.append(", COUNT(DISTINCT ip) AS unique_hits");
+        }
+        sql.append(" FROM hits WHERE ts >= :start AND ts < :end");
+        Map<String, Object> params = new HashMap<>();
+        params.put("start", start);
+        params.put("end", end);
+        if (uriIds != null) {
+            sql.append(" AND uri_id IN (:uriIds)");
+            params.put("uriIds", List.copyOf(uriIds));
+        }
+        sql.append(" GROUP BY app_id, uri_id, ").append(bucket).append(") g")
+                .append(" JOIN apps a ON a.id = g.app_id JOIN uris u ON u.id = g.uri_id")
+                .append(" ORDER BY a.name, u.uri, g.bucket");
+
+        return databaseClient.sql(sql.toString())
+                .bindValues(params)
+                .map((row, metadata) -> new HitBucketDto(
+                        row.get("app", String.class),
+                        row.get("uri", String.class),
+                        row.get("bucket", LocalDateTime.class).format(formatter),
+                        row.get("hits", Long.class),
+                        unique ? row.get("unique_hits", Long.class) : null))
+                .all();
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.stats.repository;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import ru.practicum.stats.entity.Hit;
+
+public interface StatsRepository extends ReactiveCrudRepository<Hit, Long> {
+}
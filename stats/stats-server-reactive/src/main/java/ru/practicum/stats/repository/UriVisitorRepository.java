@@ -0,0 +1,106 @@
+package ru.practicum.stats.repository;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.HitStatDto;
+import ru.practicum.stats.config.DatabaseDialect;
+import ru.practicum.stats.entity.Hit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Первые посещения uri с каждого ip - источник ленты изменений уникальных просмотров.
+ * seq берётся из последовательности без пула и растёт в порядке вставки на всех экземплярах.
+ */
+@Repository
+public class UriVisitorRepository {
+
+    private final DatabaseClient databaseClient;
+    private final DatabaseDialect databaseDialect;
+    private final Duration settleTime;
+
+    public UriVisitorRepository(DatabaseClient databaseClient,
+                                DatabaseDialect databaseDialect,
+                                @Value("${stats.changes.settle-time:30s}") Duration settleTime) {
+        this.databaseClient = databaseClient;
+        this.databaseDialect = databaseDialect;
+        this.settleTime = settleTime;
+    }
+
+    /**
+     * Вызывается в транзакции записи хитов: посетитель появляется в ленте только вместе со своим хитом.
+     * Повторы внутри порции отбрасываются до записи.
+     */
+    public Mono<Void> insertIfAbsent(List<Hit> hits) {
+        String sql = databaseDialect.isPostgres()
+                ? "INSERT INTO uri_visitors (uri_id, ip, app_id) VALUES ($1, $2, $3) "
+                + "ON CONFLICT (uri_id, ip) DO NOTHING"
+                : "MERGE INTO uri_visitors v USING (VALUES (CAST($1 AS INTEGER), CAST($2 AS VARCHAR(32)), "
+                + "CAST($3 AS INTEGER))) AS s (uri_id, ip, app_id) "
+                + "ON v.uri_id = s.uri_id AND v.ip = s.ip "
+                + "WHEN NOT MATCHED THEN INSERT (uri_id, ip, app_id) VALUES (s.uri_id, s.ip, s.app_id)";
+        Set<String> seen = new HashSet<>();
+        List<Hit> visitors = hits.stream()
+                .filter(hit -> seen.add(hit.getUriId() + " " + hit.getIp()))
+                .toList();
+        if (visitors.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(sql);
+                    for (int i = 0; i < visitors.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        Hit hit = visitors.get(i);
+                        statement.bind(0, hit.getUriId())
+                                .bind(1, hit.getIp())
+                                .bind(2, hit.getAppId());
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .then();
+    }
+
+    /**
+     * Наибольший seq, до которого лента уже не может пополниться.
+     * created_at - время начала вставившей транзакции, а seq выдаётся внутри неё, поэтому если любая транзакция
+     * записи хитов короче половины settle-time, все строки с seq не больше найденного уже зафиксированы.
+     */
+    public Mono<Long> findSettledSeq() {
+        // Время базы, а не приложения: created_at тоже ставит база
+        return databaseClient.sql("SELECT LOCALTIMESTAMP AS db_time")
+                .map((row, metadata) -> row.get("db_time", LocalDateTime.class))
+                .one()
+                .flatMap(now -> databaseClient
+                        .sql("SELECT MAX(seq) AS seq FROM uri_visitors WHERE created_at <= :cutoff")
+                        .bind("cutoff", now.minus(settleTime))
+                        .map((row, metadata) -> Optional.ofNullable(row.get("seq", Long.class)))
+                        .one())
+                .map(seq -> seq.orElse(0L));
+    }
+
+    // Новые уникальные просмотры в интервале (afterSeq, toSeq]
+    public Flux<HitStatDto> findDelta(long afterSeq, long toSeq, String uriPattern) {
+        return databaseClient.sql("SELECT a.name AS app, u.uri AS uri, COUNT(*) AS hits FROM uri_visitors v "
+                        + "JOIN uris u ON u.id = v.uri_id JOIN apps a ON a.id = v.app_id "
+                        + "WHERE v.seq > :afterSeq AND v.seq <= :toSeq AND u.uri LIKE :uriPattern "
+                        + "GROUP BY v.app_id, v.uri_id, a.name, u.uri")
+                .bind("afterSeq", afterSeq)
+                .bind("toSeq", toSeq)
+                .bind("uriPattern", uriPattern)
+                .map((row, metadata) -> new HitStatDto(row.get("app", String.class), row.get("uri", String.class),
+                        row.get("hits", Long.class).intValue()))
+                .all();
+    }
+}
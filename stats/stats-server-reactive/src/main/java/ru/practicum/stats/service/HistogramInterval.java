@@ -0,0 +1,50 @@
+package ru.practicum.stats.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Getter
+@RequiredArgsConstructor
+public enum HistogramInterval {
+    MINUTE("minute", Duration.ofMinutes(1)),
+    HOUR("hour", Duration.ofHours(1)),
+    DAY("day", Duration.ofDays(1)),
+    WEEK("week", Duration.ofDays(7)),
+    MONTH("month", Duration.ofDays(31));
+
+    private static final long MAX_BUCKETS = 10_000;
+
+    // Единица для DATE_TRUNC, одинаково понимается PostgreSQL и H2
+    private final String truncUnit;
+    // Верхняя оценка длины корзины, используется только для ограничения числа корзин
+    private final Duration length;
+
+    public static HistogramInterval from(String value) {
+        if (value == null || value.isBlank()) {
+            return HOUR;
+        }
+        for (HistogramInterval interval : values()) {
+            if (interval.name().equalsIgnoreCase(value)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unknown interval: " + value);
+    }
+
+    /**
+     * Проверяет, что диапазон задан и не даёт слишком много корзин.
+     */
+    public void checkRange(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("Start and end dates are required for histogram");
+        }
+        long buckets = Duration.between(start, end).dividedBy(length) + 1;
+        if (buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Too many buckets for interval " + this
+                    + ": " + buckets + ", maximum is " + MAX_BUCKETS);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.stats.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.stats.repository.DictionaryRepository;
+import ru.practicum.stats.repository.DictionaryRepository.Dictionary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш словарей приложений и uri.
+ * Идентификатор словарной строки не меняется, поэтому записи кэша никогда не устаревают;
+ * размер кэша ограничен числом различных uri, а не числом хитов.
+ */
+@Component
+@RequiredArgsConstructor
+public class HitDictionary {
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final DictionaryRepository dictionaryRepository;
+    private final Map<Dictionary, Map<String, Integer>> entries = new EnumMap<>(Map.of(
+            Dictionary.APPS, new ConcurrentHashMap<>(),
+            Dictionary.URIS, new ConcurrentHashMap<>()));
+
+    /**
+     * Идентификатор значения; отсутствующее значение добавляется в словарь.
+     */
+    public Mono<Integer> id(Dictionary dictionary, String value) {
+        Integer id = entries.get(dictionary).get(value);
+        if (id != null) {
+            return Mono.just(id);
+        }
+        return ids(dictionary, List.of(value)).map(ids -> ids.get(value));
+    }
+
+    /**
+     * Идентификаторы набора значений одним-двумя запросами на порцию; отсутствующие значения добавляются.
+     */
+    public Mono<Map<String, Integer>> ids(Dictionary dictionary, Collection<String> values) {
+        Map<String, Integer> cached = entries.get(dictionary);
+        Map<String, Integer> result = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String value : values) {
+            Integer id = cached.get(value);
+            if (id != null) {
+                result.put(value, id);
+            } else {
+                missing.add(value);
+            }
+        }
+        if (missing.isEmpty()) {
+            return Mono.just(result);
+        }
+
+        return load(dictionary, missing)
+                .flatMap(found -> found.size() == missing.size()
+                        ? Mono.just(found)
+                        : Flux.fromIterable(missing)
+                        .filter(value -> !found.containsKey(value))
+                        .concatMap(value -> dictionaryRepository.insertIfAbsent(dictionary, value))
+                        .then(Mono.defer(() -> load(dictionary, missing))))
+                .map(found -> {
+                    for (String value : missing) {
+                        Integer id = found.get(value);
+                        if (id == null) {
+                            throw new IllegalStateException("Failed to register " + dictionary + " value: " + value);
+                        }
+                        result.put(value, id);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Идентификаторы только уже известных значений, словарь не пополняется.
+     */
+    public Mono<List<Integer>> existingIds(Dictionary dictionary, Collection<String> values) {
+        Map<String, Integer> cached = entries.get(dictionary);
+        List<Integer> result = new ArrayList<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String value : values) {
+            Integer id = cached.get(value);
+            if (id != null) {
+                result.add(id);
+            } else {
+                missing.add(value);
+            }
+        }
+        if (missing.isEmpty()) {
+            return Mono.just(result);
+        }
+        return load(dictionary, missing).map(found -> {
+            result.addAll(found.values());
+            return result;
+        });
+    }
+
+    private Mono<Map<String, Integer>> load(Dictionary dictionary, Collection<String> values) {
+        Map<String, Integer> cached = entries.get(dictionary);
+        return Flux.fromIterable(values)
+                .buffer(LOOKUP_CHUNK_SIZE)
+                .concatMap(chunk -> dictionaryRepository.findIds(dictionary, chunk))
+                .<Map<String, Integer>>collect(HashMap::new, Map::putAll)
+                .doOnNext(cached::putAll);
+    }
+}
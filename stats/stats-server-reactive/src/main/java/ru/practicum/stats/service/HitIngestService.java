@@ -0,0 +1,15 @@
+package ru.practicum.stats.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.HitBulkResultDto;
+import ru.practicum.HitDto;
+
+public interface HitIngestService {
+
+    /**
+     * Сохраняет хиты из NDJSON порциями пакетными INSERT по мере чтения тела запроса.
+     * Каждая порция сохраняется в своей транзакции: при ошибке уже записанные порции остаются.
+     */
+    Mono<HitBulkResultDto> saveHits(Flux<HitDto> hits);
+}
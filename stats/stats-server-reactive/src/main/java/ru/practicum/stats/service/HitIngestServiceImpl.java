@@ -0,0 +1,89 @@
+package ru.practicum.stats.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.HitBulkResultDto;
+import ru.practicum.HitDto;
+import ru.practicum.stats.entity.Hit;
+import ru.practicum.stats.repository.DictionaryRepository.Dictionary;
+import ru.practicum.stats.repository.HitBulkRepository;
+import ru.practicum.stats.repository.UriVisitorRepository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static ru.practicum.stats.mapper.HitDtoMapper.dtoToHit;
+import static ru.practicum.stats.utils.Constants.formatter;
+
+@Slf4j
+@Service
+public class HitIngestServiceImpl implements HitIngestService {
+
+    private final HitBulkRepository hitBulkRepository;
+    private final UriVisitorRepository uriVisitorRepository;
+    private final HitDictionary hitDictionary;
+    private final TransactionalOperator transactionalOperator;
+    private final int batchSize;
+
+    public HitIngestServiceImpl(HitBulkRepository hitBulkRepository,
+                                UriVisitorRepository uriVisitorRepository,
+                                HitDictionary hitDictionary,
+                                TransactionalOperator transactionalOperator,
+                                @Value("${stats.ingest.batch-size:10000}") int batchSize) {
+        this.hitBulkRepository = hitBulkRepository;
+        this.uriVisitorRepository = uriVisitorRepository;
+        this.hitDictionary = hitDictionary;
+        this.transactionalOperator = transactionalOperator;
+        this.batchSize = batchSize;
+    }
+
+    // Порции пишутся по очереди: в памяти не больше одной порции и следующей, читаемой из тела запроса
+    @Override
+    public Mono<HitBulkResultDto> saveHits(Flux<HitDto> hits) {
+        AtomicLong received = new AtomicLong();
+        return hits
+                .onErrorMap(DecodingException.class, e -> new IllegalArgumentException(
+                        "Invalid hit #" + (received.get() + 1) + ": " + e.getMessage(), e))
+                .doOnNext(hitDto -> validate(hitDto, received.incrementAndGet()))
+                .buffer(batchSize)
+                .concatMap(this::write)
+                .reduce(0L, Long::sum)
+                .map(inserted -> {
+                    log.info("Bulk saved {} hits via INSERT", received.get());
+                    return new HitBulkResultDto(received.get(), 0L, inserted);
+                });
+    }
+
+    private Mono<Long> write(List<HitDto> batch) {
+        // Словари пополняются до транзакции порции, как и при записи одиночного хита
+        return Mono.zip(hitDictionary.ids(Dictionary.APPS, batch.stream().map(HitDto::getApp).toList()),
+                        hitDictionary.ids(Dictionary.URIS, batch.stream().map(HitDto::getUri).toList()))
+                .flatMap(ids -> {
+                    List<Hit> hits = batch.stream()
+                            .map(dto -> dtoToHit(dto, ids.getT1().get(dto.getApp()), ids.getT2().get(dto.getUri())))
+                            .toList();
+                    return hitBulkRepository.insert(hits)
+                            .flatMap(inserted -> uriVisitorRepository.insertIfAbsent(hits).thenReturn(inserted))
+                            .as(transactionalOperator::transactional);
+                });
+    }
+
+    static void validate(HitDto hitDto, long number) {
+        if (hitDto == null || hitDto.getApp() == null || hitDto.getUri() == null
+                || hitDto.getIp() == null || hitDto.getTimestamp() == null) {
+            throw new IllegalArgumentException("Invalid hit #" + number + ": app, uri, ip and timestamp are required");
+        }
+        try {
+            LocalDateTime.parse(hitDto.getTimestamp(), formatter);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid hit #" + number + ": " + e.getMessage(), e);
+        }
+    }
+}
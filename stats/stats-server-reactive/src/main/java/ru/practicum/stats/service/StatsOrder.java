@@ -0,0 +1,18 @@
+package ru.practicum.stats.service;
+
+public enum StatsOrder {
+    HITS,
+    URI;
+
+    public static StatsOrder from(String value) {
+        if (value == null || value.isBlank()) {
+            return HITS;
+        }
+        for (StatsOrder order : values()) {
+            if (order.name().equalsIgnoreCase(value)) {
+                return order;
+            }
+        }
+        throw new IllegalArgumentException("Unknown orderBy: " + value);
+    }
+}
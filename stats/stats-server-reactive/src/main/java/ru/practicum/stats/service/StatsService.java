@@ -0,0 +1,28 @@
+package ru.practicum.stats.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.HitBucketDto;
+import ru.practicum.HitChangesDto;
+import ru.practicum.HitDto;
+import ru.practicum.HitStatDto;
+
+import java.util.List;
+
+public interface StatsService {
+    Mono<HitDto> saveHit(HitDto hitDto);
+
+    Flux<HitStatDto> getHits(String start, String end, List<String> uris, Boolean unique);
+
+    Mono<HitChangesDto> getChanges(long afterId, int limit, String uriPrefix);
+
+    /**
+     * Агрегирует статистику в базе и отдаёт строки по мере чтения, не собирая результат в памяти.
+     */
+    Flux<HitStatDto> streamHits(StatsQuery query);
+
+    /**
+     * Число просмотров по корзинам времени для каждого uri; уникальные считаются только при unique=true.
+     */
+    Flux<HitBucketDto> getHistogram(String start, String end, List<String> uris, String interval, Boolean unique);
+}
@@ -0,0 +1,119 @@
+package ru.practicum.stats.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.HitBucketDto;
+import ru.practicum.HitChangesDto;
+import ru.practicum.HitDto;
+import ru.practicum.HitStatDto;
+import ru.practicum.stats.entity.Hit;
+import ru.practicum.stats.repository.DictionaryRepository.Dictionary;
+import ru.practicum.stats.repository.HitStatsRepository;
+import ru.practicum.stats.repository.StatsRepository;
+import ru.practicum.stats.repository.UriVisitorRepository;
+
+import java.util.List;
+
+import static ru.practicum.stats.mapper.HitDtoMapper.dtoToHit;
+import static ru.practicum.stats.mapper.HitDtoMapper.toHitDto;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatsServiceImpl implements StatsService {
+
+    private final StatsRepository statsRepository;
+    private final HitStatsRepository hitStatsRepository;
+    private final UriVisitorRepository uriVisitorRepository;
+    private final HitDictionary hitDictionary;
+    private final TransactionalOperator transactionalOperator;
+
+    // Словарные строки добавляются до транзакции записи хита
+    @Override
+    public Mono<HitDto> saveHit(HitDto hitDto) {
+        log.info("Saving hit: {}", hitDto);
+        return Mono.zip(hitDictionary.id(Dictionary.APPS, hitDto.getApp()),
+                        hitDictionary.id(Dictionary.URIS, hitDto.getUri()))
+                .flatMap(ids -> {
+                    Hit hit = dtoToHit(hitDto, ids.getT1(), ids.getT2());
+                    hit.setId(null);
+                    return statsRepository.save(hit)
+                            .flatMap(saved -> uriVisitorRepository.insertIfAbsent(List.of(saved)).thenReturn(saved))
+                            .as(transactionalOperator::transactional);
+                })
+                .map(saved -> toHitDto(saved, hitDto.getApp(), hitDto.getUri()));
+    }
+
+    @Override
+    public Flux<HitStatDto> getHits(String start, String end, List<String> uris, Boolean unique) {
+        log.info("Retrieving stats: start={}, end={}, uris={}, unique={}", start, end, uris, unique);
+        return Flux.defer(() -> {
+            StatsQuery query = StatsQuery.of(start, end, uris, unique, null, null);
+            if (!query.hasRange()) {
+                log.warn("Start or end date is blank, fetching all data for uris: {}", uris);
+            }
+            return aggregate(query);
+        });
+    }
+
+    @Override
+    public Mono<HitChangesDto> getChanges(long afterId, int limit, String uriPrefix) {
+        log.info("Retrieving hit changes: afterId={}, limit={}, uriPrefix={}", afterId, limit, uriPrefix);
+        if (afterId < 0 || limit <= 0) {
+            return Mono.error(new IllegalArgumentException("afterId must not be negative and limit must be positive"));
+        }
+
+        // Курсор - seq первых посещений, как и в блокирующем stats-server
+        return uriVisitorRepository.findSettledSeq().flatMap(settledSeq -> {
+            long lastId = Math.max(settledSeq, afterId);
+            long toId = Math.min(lastId, afterId + limit);
+            Mono<List<HitStatDto>> stats = toId == afterId
+                    ? Mono.just(List.of())
+                    : uriVisitorRepository.findDelta(afterId, toId, (uriPrefix == null ? "" : uriPrefix) + "%")
+                    .collectList();
+            return stats.map(delta -> new HitChangesDto(afterId, toId, delta, toId < lastId));
+        });
+    }
+
+    @Override
+    public Flux<HitStatDto> streamHits(StatsQuery query) {
+        log.info("Streaming stats: {}", query);
+        return aggregate(query);
+    }
+
+    @Override
+    public Flux<HitBucketDto> getHistogram(String start, String end, List<String> uris, String interval,
+                                           Boolean unique) {
+        log.info("Retrieving histogram: start={}, end={}, uris={}, interval={}, unique={}",
+                start, end, uris, interval, unique);
+        return Flux.defer(() -> {
+            StatsQuery query = StatsQuery.of(start, end, uris, unique, null, null);
+            HistogramInterval bucketInterval = HistogramInterval.from(interval);
+            bucketInterval.checkRange(query.start(), query.end());
+            if (query.uris() == null) {
+                return hitStatsRepository.getHistogram(query.start(), query.end(), null, bucketInterval,
+                        query.unique());
+            }
+            return hitDictionary.existingIds(Dictionary.URIS, query.uris())
+                    .flatMapMany(uriIds -> uriIds.isEmpty()
+                            ? Flux.<HitBucketDto>empty()
+                            : hitStatsRepository.getHistogram(query.start(), query.end(), uriIds, bucketInterval,
+                            query.unique()));
+        });
+    }
+
+    // Пустой список известных uri означает, что ни один из запрошенных uri не встречался
+    private Flux<HitStatDto> aggregate(StatsQuery query) {
+        if (query.uris() == null) {
+            return hitStatsRepository.aggregate(query, null);
+        }
+        return hitDictionary.existingIds(Dictionary.URIS, query.uris())
+                .flatMapMany(uriIds -> uriIds.isEmpty()
+                        ? Flux.<HitStatDto>empty()
+                        : hitStatsRepository.aggregate(query, uriIds));
+    }
+}
@@ -0,0 +1,64 @@
+DROP TABLE IF EXISTS uri_visitors CASCADE;
+DROP TABLE IF EXISTS hits CASCADE;
+DROP TABLE IF EXISTS uris CASCADE;
+DROP TABLE IF EXISTS apps CASCADE;
+DROP SEQUENCE IF EXISTS hits_seq;
+DROP SEQUENCE IF EXISTS uris_seq;
+DROP SEQUENCE IF EXISTS apps_seq;
+DROP SEQUENCE IF EXISTS uri_visitors_seq;
+-- Схема совпадает с блокирующим stats-server, кроме шага hits_seq: здесь нет пула идентификаторов Hibernate,
+-- id выдаёт DEFAULT nextval, и при шаге 50 каждая вставка сдвигала бы последовательность на 50
+CREATE SEQUENCE IF NOT EXISTS hits_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS apps_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS uris_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS uri_visitors_seq START WITH 1 INCREMENT BY 1;
+
+-- Словари приложений и uri: в hits хранятся только их целочисленные идентификаторы
+CREATE TABLE IF NOT EXISTS apps
+(
+    id   INTEGER DEFAULT nextval('apps_seq')           NOT NULL,
+    name VARCHAR(512)                                  NOT NULL,
+    CONSTRAINT pk_apps_id PRIMARY KEY (id),
+    CONSTRAINT uq_apps_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS uris
+(
+    id  INTEGER DEFAULT nextval('uris_seq')            NOT NULL,
+    uri VARCHAR(512)                                   NOT NULL,
+    CONSTRAINT pk_uris_id PRIMARY KEY (id),
+    CONSTRAINT uq_uris_uri UNIQUE (uri)
+);
+
+CREATE TABLE IF NOT EXISTS hits
+(
+    id    BIGINT DEFAULT nextval('hits_seq')           NOT NULL,
+    app_id INTEGER                                     NOT NULL,
+    uri_id INTEGER                                     NOT NULL,
+    ip VARCHAR(32)                                     NOT NULL,
+    ts TIMESTAMP WITHOUT TIME ZONE            NOT NULL,
+    CONSTRAINT pk_Hit_id PRIMARY KEY (id),
+    CONSTRAINT fk_hits_app_id FOREIGN KEY (app_id) REFERENCES apps (id),
+    CONSTRAINT fk_hits_uri_id FOREIGN KEY (uri_id) REFERENCES uris (id)
+) ;
+
+CREATE INDEX IF NOT EXISTS hits_uri_ip_idx ON hits (uri_id, ip);
+
+-- Интервалы времени при параллельной агрегации и перенос в архив читают hits по ts
+CREATE INDEX IF NOT EXISTS hits_ts_idx ON hits (ts);
+
+-- Первое посещение uri с каждого ip: лента изменений уникальных просмотров читает строки по seq.
+-- created_at - время начала вставившей транзакции, по нему отсекаются ещё не зафиксированные seq
+CREATE TABLE IF NOT EXISTS uri_visitors
+(
+    uri_id     INTEGER                                   NOT NULL,
+    ip         VARCHAR(32)                               NOT NULL,
+    app_id     INTEGER                                   NOT NULL,
+    seq        BIGINT    DEFAULT nextval('uri_visitors_seq') NOT NULL,
+    created_at TIMESTAMP DEFAULT LOCALTIMESTAMP          NOT NULL,
+    CONSTRAINT pk_uri_visitors PRIMARY KEY (uri_id, ip),
+    CONSTRAINT fk_uri_visitors_uri_id FOREIGN KEY (uri_id) REFERENCES uris (id),
+    CONSTRAINT fk_uri_visitors_app_id FOREIGN KEY (app_id) REFERENCES apps (id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uri_visitors_seq_idx ON uri_visitors (seq);
@@ -2,8 +2,13 @@ package ru.practicum.stats;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.practicum.jdbc.DatabaseDialect;
 
 @SpringBootApplication
+@EnableScheduling
+@Import(DatabaseDialect.class)
 public class StatsServiceApp {
     public static void main(String[] args) {
         SpringApplication.run(StatsServiceApp.class, args);
@@ -0,0 +1,98 @@
+package ru.practicum.stats.archive;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Счётчик хитов одного ключа в архиве. Для уникальных просмотров хранит отсортированные хэши ip
+ * из сегментов ({@link IpHash}): ip из базы объединяются с ними поиском, а не складыванием количеств.
+ * Хэши сегментов сначала дописываются в буфер, сортировка и удаление повторов - при переполнении и перед чтением.
+ */
+public final class ArchiveCounter {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long hits;
+    private long[] ipHashes;
+    private int size;
+    private int distinctSize;
+    private long databaseIps;
+
+    ArchiveCounter(boolean unique) {
+        this.ipHashes = unique ? EMPTY : null;
+    }
+
+    /**
+     * Число хитов или, для уникального запроса, число различных ip.
+     */
+    public long value() {
+        if (ipHashes == null) {
+            return hits;
+        }
+        compact();
+        return size + databaseIps;
+    }
+
+    /**
+     * Учитывает ip того же ключа из базы. Каждый ip базы передаётся один раз, после всех сегментов архива.
+     */
+    public void addIp(String ip) {
+        compact();
+        if (Arrays.binarySearch(ipHashes, 0, size, IpHash.of(ip)) < 0) {
+            databaseIps++;
+        }
+    }
+
+    /**
+     * Оставляет только ip архива, подходящие под условие, например попавшие в выборку. Вызывается до addIp.
+     */
+    public void retainIps(LongPredicate filter) {
+        compact();
+        int retained = 0;
+        for (int i = 0; i < size; i++) {
+            if (filter.test(ipHashes[i])) {
+                ipHashes[retained++] = ipHashes[i];
+            }
+        }
+        size = retained;
+        distinctSize = retained;
+    }
+
+    void add(long count) {
+        hits += count;
+    }
+
+    void addIpHashes(long[] hashes, int count) {
+        if (size + count > ipHashes.length) {
+            ipHashes = Arrays.copyOf(ipHashes, Math.max(size + count, ipHashes.length * 2));
+        }
+        System.arraycopy(hashes, 0, ipHashes, size, count);
+        size += count;
+        // Повторы между сегментами не дают буферу расти больше чем вдвое сверх различных хэшей
+        if (size > 2 * distinctSize + 1024) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        if (size == distinctSize) {
+            return;
+        }
+        size = sortDistinct(ipHashes, size);
+        distinctSize = size;
+    }
+
+    /**
+     * Сортирует первые count элементов и убирает повторы; возвращает число различных.
+     */
+    static int sortDistinct(long[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || values[distinct - 1] != values[i]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,457 @@
+package ru.practicum.stats.archive;
+
+import ru.practicum.stats.storage.HitRecord;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Сегмент архива: хиты, перенесённые из базы, по столбцам. Строки упорядочены по времени.
+ * Заголовок хранится без сжатия и читается при открытии: диапазоны id и времени, словари приложений и uri,
+ * а для каждой пары (приложение, uri) - число хитов и диапазон времени. Запрос без уникальности,
+ * целиком покрывающий пару, отвечается по этой статистике без чтения столбцов.
+ * Формат: int magic, long minId, long maxId, long minTime, long maxTime, int count,
+ * словари приложений и uri (int число, затем int длина + UTF-8), int число пар и по каждой
+ * int номер приложения, int номер uri, long хиты, long minTime, long maxTime;
+ * затем столбцы времени, пар, ip и хэшей ip, каждый как int исходная длина, int сжатая длина и Deflate-данные.
+ * Столбец времени - разности с предыдущей строкой, пары - номера, ip - собственный словарь и номера,
+ * хэши - для каждой пары по порядку число различных ip и их отсортированные {@link IpHash} разностями
+ * с предыдущим. Все числа в столбцах записаны как varint. Уникальный запрос, целиком покрывающий пару,
+ * читает только столбец хэшей, а не строки.
+ */
+final class ArchiveSegment {
+
+    private static final int MAGIC = 0x48415232;
+
+    private final Path path;
+    private final long minId;
+    private final long maxId;
+    private final long minEpochSecond;
+    private final long maxEpochSecond;
+    private final int count;
+    private final HitKey[] keys;
+    private final long[] keyHits;
+    private final long[] keyMinEpochSecond;
+    private final long[] keyMaxEpochSecond;
+    private final int columnsOffset;
+
+    private ArchiveSegment(Path path, ByteBuffer buffer) throws IOException {
+        this.path = path;
+        if (buffer.remaining() < Integer.BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Invalid archive segment " + path);
+        }
+        try {
+            this.minId = buffer.getLong();
+            this.maxId = buffer.getLong();
+            this.minEpochSecond = buffer.getLong();
+            this.maxEpochSecond = buffer.getLong();
+            this.count = buffer.getInt();
+            String[] apps = readStrings(buffer);
+            String[] uris = readStrings(buffer);
+            int keyCount = buffer.getInt();
+            this.keys = new HitKey[keyCount];
+            this.keyHits = new long[keyCount];
+            this.keyMinEpochSecond = new long[keyCount];
+            this.keyMaxEpochSecond = new long[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                keys[i] = new HitKey(apps[buffer.getInt()], uris[buffer.getInt()]);
+                keyHits[i] = buffer.getLong();
+                keyMinEpochSecond[i] = buffer.getLong();
+                keyMaxEpochSecond[i] = buffer.getLong();
+            }
+            this.columnsOffset = buffer.position();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated archive segment " + path, e);
+        }
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        return new ArchiveSegment(path, ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+    /**
+     * Записывает хиты в новый файл сегмента и сбрасывает его на диск.
+     */
+    static ArchiveSegment write(Path path, List<HitRecord> hits) throws IOException {
+        if (hits.isEmpty()) {
+            throw new IllegalArgumentException("Archive segment must not be empty");
+        }
+        List<HitRecord> rows = new ArrayList<>(hits);
+        rows.sort(Comparator.comparingLong(HitRecord::epochSecond).thenComparingLong(HitRecord::id));
+
+        Map<String, Integer> apps = new LinkedHashMap<>();
+        Map<String, Integer> uris = new LinkedHashMap<>();
+        Map<HitKey, KeyStats> keys = new LinkedHashMap<>();
+        Map<String, Integer> ips = new LinkedHashMap<>();
+        List<Set<Integer>> keyIps = new ArrayList<>();
+        ColumnWriter times = new ColumnWriter();
+        ColumnWriter keyIndexes = new ColumnWriter();
+        ColumnWriter ipIndexes = new ColumnWriter();
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        long previousEpochSecond = rows.get(0).epochSecond();
+
+        for (HitRecord row : rows) {
+            minId = Math.min(minId, row.id());
+            maxId = Math.max(maxId, row.id());
+            times.writeLong(row.epochSecond() - previousEpochSecond);
+            previousEpochSecond = row.epochSecond();
+
+            KeyStats stats = keys.computeIfAbsent(new HitKey(row.app(), row.uri()), key -> new KeyStats(
+                    keys.size(),
+                    apps.computeIfAbsent(key.app(), app -> apps.size()),
+                    uris.computeIfAbsent(key.uri(), uri -> uris.size()),
+                    row.epochSecond()));
+            stats.hits++;
+            stats.maxEpochSecond = row.epochSecond();
+            keyIndexes.writeInt(stats.index);
+            int ipIndex = ips.computeIfAbsent(row.ip(), ip -> ips.size());
+            ipIndexes.writeInt(ipIndex);
+            if (stats.index == keyIps.size()) {
+                keyIps.add(new HashSet<>());
+            }
+            keyIps.get(stats.index).add(ipIndex);
+        }
+
+        ColumnWriter ipColumn = new ColumnWriter();
+        ipColumn.writeInt(ips.size());
+        ips.keySet().forEach(ipColumn::writeString);
+        ipColumn.writeBytes(ipIndexes.toByteArray());
+
+        long[] ipHashes = ips.keySet().stream().mapToLong(IpHash::of).toArray();
+        ColumnWriter hashColumn = new ColumnWriter();
+        for (Set<Integer> indexes : keyIps) {
+            long[] hashes = indexes.stream().mapToLong(index -> ipHashes[index]).toArray();
+            int distinct = ArchiveCounter.sortDistinct(hashes, hashes.length);
+            hashColumn.writeInt(distinct);
+            long previous = 0;
+            for (int i = 0; i < distinct; i++) {
+                // Разность по модулю 2^64: varint записывает её как беззнаковую, чтение восстанавливает сложением
+                hashColumn.writeLong(hashes[i] - previous);
+                previous = hashes[i];
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(minId);
+            out.writeLong(maxId);
+            out.writeLong(rows.get(0).epochSecond());
+            out.writeLong(rows.get(rows.size() - 1).epochSecond());
+            out.writeInt(rows.size());
+            writeStrings(out, apps.keySet());
+            writeStrings(out, uris.keySet());
+            out.writeInt(keys.size());
+            for (Map.Entry<HitKey, KeyStats> entry : keys.entrySet()) {
+                KeyStats stats = entry.getValue();
+                out.writeInt(stats.appIndex);
+                out.writeInt(stats.uriIndex);
+                out.writeLong(stats.hits);
+                out.writeLong(stats.minEpochSecond);
+                out.writeLong(stats.maxEpochSecond);
+            }
+            times.writeCompressed(out);
+            keyIndexes.writeCompressed(out);
+            ipColumn.writeCompressed(out);
+            hashColumn.writeCompressed(out);
+        }
+        try (FileChannel channel = FileChannel.open(path, WRITE)) {
+            channel.force(true);
+        }
+        return open(path);
+    }
+
+    long minId() {
+        return minId;
+    }
+
+    long maxId() {
+        return maxId;
+    }
+
+    long maxEpochSecond() {
+        return maxEpochSecond;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Добавляет к счётчикам хиты сегмента со временем в [fromEpochSecond, toEpochSecond).
+     * Пары, целиком попавшие в интервал, считаются по заголовку или, для уникальных, по столбцу хэшей;
+     * строки распаковываются только для пар на границах интервала.
+     *
+     * @param uris uri для отбора или null
+     */
+    void aggregate(long fromEpochSecond, long toEpochSecond, Set<String> uris, boolean unique,
+                   Map<HitKey, ArchiveCounter> counters) throws IOException {
+        if (maxEpochSecond < fromEpochSecond || minEpochSecond >= toEpochSecond) {
+            return;
+        }
+        boolean[] scanKeys = new boolean[keys.length];
+        boolean[] hashKeys = new boolean[keys.length];
+        boolean scanRows = false;
+        boolean readHashes = false;
+        for (int i = 0; i < keys.length; i++) {
+            if (uris != null && !uris.contains(keys[i].uri())
+                    || keyMaxEpochSecond[i] < fromEpochSecond || keyMinEpochSecond[i] >= toEpochSecond) {
+                continue;
+            }
+            boolean covered = keyMinEpochSecond[i] >= fromEpochSecond && keyMaxEpochSecond[i] < toEpochSecond;
+            if (covered && !unique) {
+                counters.computeIfAbsent(keys[i], key -> new ArchiveCounter(false)).add(keyHits[i]);
+            } else if (covered) {
+                hashKeys[i] = true;
+                readHashes = true;
+            } else {
+                scanKeys[i] = true;
+                scanRows = true;
+            }
+        }
+        if (!scanRows && !readHashes) {
+            return;
+        }
+
+        ByteBuffer columns = ByteBuffer.wrap(Files.readAllBytes(path)).position(columnsOffset);
+        if (scanRows) {
+            scanRows(columns, fromEpochSecond, toEpochSecond, scanKeys, unique, counters);
+        } else {
+            ColumnReader.skip(columns);
+            ColumnReader.skip(columns);
+            ColumnReader.skip(columns);
+        }
+        if (readHashes) {
+            ColumnReader hashes = ColumnReader.inflate(columns);
+            long[] buffer = new long[0];
+            for (int i = 0; i < keys.length; i++) {
+                int distinct = hashes.readInt();
+                if (buffer.length < distinct) {
+                    buffer = new long[Math.max(distinct, buffer.length * 2)];
+                }
+                long previous = 0;
+                for (int j = 0; j < distinct; j++) {
+                    previous += hashes.readLong();
+                    buffer[j] = previous;
+                }
+                if (hashKeys[i]) {
+                    counters.computeIfAbsent(keys[i], key -> new ArchiveCounter(true)).addIpHashes(buffer, distinct);
+                }
+            }
+        }
+    }
+
+    // Читает столбцы времени, пар и, для уникальных, ip; оставляет буфер на столбце хэшей
+    private void scanRows(ByteBuffer columns, long fromEpochSecond, long toEpochSecond, boolean[] scanKeys,
+                          boolean unique, Map<HitKey, ArchiveCounter> counters) throws IOException {
+        ColumnReader times = ColumnReader.inflate(columns);
+        ColumnReader keyIndexes = ColumnReader.inflate(columns);
+        ColumnReader ipIndexes = null;
+        long[] ipHashes = null;
+        long[][] keyHashes = null;
+        int[] keyHashCounts = null;
+        if (unique) {
+            ipIndexes = ColumnReader.inflate(columns);
+            ipHashes = new long[ipIndexes.readInt()];
+            for (int i = 0; i < ipHashes.length; i++) {
+                ipHashes[i] = IpHash.of(ipIndexes.readString());
+            }
+            keyHashes = new long[keys.length][];
+            keyHashCounts = new int[keys.length];
+        } else {
+            ColumnReader.skip(columns);
+        }
+
+        long epochSecond = minEpochSecond;
+        for (int row = 0; row < count; row++) {
+            epochSecond += times.readLong();
+            if (epochSecond >= toEpochSecond) {
+                break;
+            }
+            int keyIndex = keyIndexes.readInt();
+            int ipIndex = unique ? ipIndexes.readInt() : 0;
+            if (!scanKeys[keyIndex] || epochSecond < fromEpochSecond) {
+                continue;
+            }
+            if (!unique) {
+                counters.computeIfAbsent(keys[keyIndex], key -> new ArchiveCounter(false)).add(1);
+                continue;
+            }
+            long[] hashes = keyHashes[keyIndex];
+            if (hashes == null || keyHashCounts[keyIndex] == hashes.length) {
+                hashes = hashes == null ? new long[16] : Arrays.copyOf(hashes, hashes.length * 2);
+                keyHashes[keyIndex] = hashes;
+            }
+            hashes[keyHashCounts[keyIndex]++] = ipHashes[ipIndex];
+        }
+
+        if (unique) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keyHashes[i] != null) {
+                    int distinct = ArchiveCounter.sortDistinct(keyHashes[i], keyHashCounts[i]);
+                    counters.computeIfAbsent(keys[i], key -> new ArchiveCounter(true))
+                            .addIpHashes(keyHashes[i], distinct);
+                }
+            }
+        }
+    }
+
+    private static String[] readStrings(ByteBuffer buffer) {
+        String[] values = new String[buffer.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static void writeStrings(DataOutputStream out, Set<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static final class KeyStats {
+        private final int index;
+        private final int appIndex;
+        private final int uriIndex;
+        private final long minEpochSecond;
+        private long maxEpochSecond;
+        private long hits;
+
+        private KeyStats(int index, int appIndex, int uriIndex, long minEpochSecond) {
+            this.index = index;
+            this.appIndex = appIndex;
+            this.uriIndex = uriIndex;
+            this.minEpochSecond = minEpochSecond;
+        }
+    }
+
+    private static final class ColumnWriter extends ByteArrayOutputStream {
+
+        private void writeInt(int value) {
+            writeLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        private void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        private void writeCompressed(DataOutputStream out) throws IOException {
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try {
+                deflater.setInput(buf, 0, count);
+                deflater.finish();
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, count / 4));
+                byte[] chunk = new byte[64 * 1024];
+                while (!deflater.finished()) {
+                    compressed.write(chunk, 0, deflater.deflate(chunk));
+                }
+                out.writeInt(count);
+                out.writeInt(compressed.size());
+                compressed.writeTo(out);
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    private static final class ColumnReader {
+        private final byte[] data;
+        private int position;
+
+        private ColumnReader(byte[] data) {
+            this.data = data;
+        }
+
+        private static ColumnReader inflate(ByteBuffer buffer) throws IOException {
+            byte[] data = new byte[buffer.getInt()];
+            int compressedLength = buffer.getInt();
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(buffer.array(), buffer.position(), compressedLength);
+                int length = 0;
+                while (length < data.length && !inflater.finished()) {
+                    int inflated = inflater.inflate(data, length, data.length - length);
+                    if (inflated == 0 && inflater.needsInput()) {
+                        break;
+                    }
+                    length += inflated;
+                }
+                if (length != data.length) {
+                    throw new IOException("Corrupted archive column");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupted archive column", e);
+            } finally {
+                inflater.end();
+            }
+            buffer.position(buffer.position() + compressedLength);
+            return new ColumnReader(data);
+        }
+
+        private static void skip(ByteBuffer buffer) {
+            buffer.getInt();
+            int compressedLength = buffer.getInt();
+            buffer.position(buffer.position() + compressedLength);
+        }
+
+        private int readInt() {
+            return (int) readLong();
+        }
+
+        private long readLong() {
+            long value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = data[position++];
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return value;
+        }
+
+        private String readString() {
+            int length = readInt();
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
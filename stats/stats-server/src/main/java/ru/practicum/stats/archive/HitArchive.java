@@ -0,0 +1,168 @@
+package ru.practicum.stats.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.stats.storage.HitRecord;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Холодный архив хитов: сегментные файлы в одном каталоге, в которые переносятся старые строки hits.
+ * Перенос идёт в три шага: сегмент пишется как .pending, строки удаляются из базы, файл переименовывается в .har.
+ * Удаление выполняется в транзакции без блокировки: пока она не зафиксирована, запросы видят строки в базе.
+ * Под блокировкой записи остаются только фиксация и публикация сегмента, а чтение базы и архива идёт
+ * под блокировкой чтения, поэтому запрос учитывает каждый хит ровно один раз.
+ */
+@Slf4j
+public class HitArchive {
+
+    private static final String SEGMENT_SUFFIX = ".har";
+    private static final String PENDING_SUFFIX = ".pending";
+
+    private final Path directory;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile List<ArchiveSegment> segments;
+
+    public HitArchive(Path directory) throws IOException {
+        this.directory = directory;
+        List<ArchiveSegment> loaded = new ArrayList<>();
+        for (Path path : list(SEGMENT_SUFFIX)) {
+            loaded.add(ArchiveSegment.open(path));
+        }
+        this.segments = List.copyOf(loaded);
+        log.info("Opened hit archive in {}: {} segments, {} hits", directory, loaded.size(),
+                loaded.stream().mapToLong(ArchiveSegment::count).sum());
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Время самого позднего хита архива или null, если архив пуст.
+     * Запрос с началом не раньше этого времени архива не касается.
+     */
+    public LocalDateTime archivedUntil() {
+        return segments.stream()
+                .mapToLong(ArchiveSegment::maxEpochSecond)
+                .max()
+                .stream()
+                .mapToObj(HitRecord::toLocalDateTime)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Выполняет чтение, согласованное с переносом хитов: пока оно идёт, строки не удаляются из базы.
+     */
+    public <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Хиты архива строго между start и end, как в GET /stats; без границ - все хиты.
+     *
+     * @param uris uri для отбора или null
+     */
+    public Map<HitKey, ArchiveCounter> aggregate(LocalDateTime start, LocalDateTime end,
+                                                 Collection<String> uris, boolean unique) {
+        long fromEpochSecond = start == null ? Long.MIN_VALUE : HitRecord.toEpochSecond(start) + 1;
+        long toEpochSecond = end == null ? Long.MAX_VALUE : HitRecord.toEpochSecond(end);
+        Set<String> uriSet = uris == null ? null : Set.copyOf(uris);
+        Map<HitKey, ArchiveCounter> counters = new HashMap<>();
+        try {
+            for (ArchiveSegment segment : segments) {
+                segment.aggregate(fromEpochSecond, toEpochSecond, uriSet, unique, counters);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read hit archive", e);
+        }
+        return counters;
+    }
+
+    /**
+     * Сегменты, записанные, но не опубликованные до сбоя. Их судьбу решает тот, кто удаляет строки из базы.
+     */
+    public List<Path> pendingSegments() throws IOException {
+        return list(PENDING_SUFFIX);
+    }
+
+    public long minIdOf(Path pending) throws IOException {
+        return ArchiveSegment.open(pending).minId();
+    }
+
+    /**
+     * Записывает хиты в неопубликованный сегмент; для запросов он станет виден только после publish.
+     */
+    public Path prepare(List<HitRecord> hits) throws IOException {
+        Files.createDirectories(directory);
+        long minId = hits.stream().mapToLong(HitRecord::id).min().orElseThrow();
+        Path pending = directory.resolve(String.format("%020d%s", minId, PENDING_SUFFIX));
+        ArchiveSegment.write(pending, hits);
+        return pending;
+    }
+
+    /**
+     * Фиксирует уже выполненное удаление перенесённых строк и публикует сегмент.
+     * Если фиксация не удалась, сегмент стирается.
+     *
+     * @param commitDelete фиксация транзакции, удалившей строки сегмента
+     */
+    public void publish(Path pending, Runnable commitDelete) throws IOException {
+        lock.writeLock().lock();
+        try {
+            try {
+                commitDelete.run();
+            } catch (RuntimeException e) {
+                Files.deleteIfExists(pending);
+                throw e;
+            }
+            String name = pending.getFileName().toString();
+            Path target = pending.resolveSibling(
+                    name.substring(0, name.length() - PENDING_SUFFIX.length()) + SEGMENT_SUFFIX);
+            Files.move(pending, target, StandardCopyOption.ATOMIC_MOVE);
+            ArchiveSegment segment = ArchiveSegment.open(target);
+            List<ArchiveSegment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            segments = List.copyOf(updated);
+            log.info("Archived {} hits with ids {}-{} to {}", segment.count(), segment.minId(), segment.maxId(),
+                    target.getFileName());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void discard(Path pending) throws IOException {
+        Files.deleteIfExists(pending);
+    }
+
+    private List<Path> list(String suffix) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.filter(path -> path.getFileName().toString().endsWith(suffix))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
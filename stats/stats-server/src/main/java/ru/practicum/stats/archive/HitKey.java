@@ -0,0 +1,7 @@
+package ru.practicum.stats.archive;
+
+/**
+ * Ключ агрегации статистики: приложение и uri.
+ */
+public record HitKey(String app, String uri) {
+}
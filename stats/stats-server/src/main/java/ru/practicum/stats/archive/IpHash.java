@@ -0,0 +1,28 @@
+package ru.practicum.stats.archive;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 64-битный хэш ip: первые 8 байт MD5. Архив хранит различные ip пары как отсортированные хэши;
+ * старшие 4 байта совпадают с хэшем, по которому приближённый GET /stats отбирает ip в выборку.
+ */
+@UtilityClass
+public class IpHash {
+
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    });
+
+    public static long of(String ip) {
+        return ByteBuffer.wrap(MD5.get().digest(ip.getBytes(StandardCharsets.UTF_8))).getLong();
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.stats.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.stats.archive.HitArchive;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Архив старых хитов для хранения в базе. Открывается и при выключенном переносе (stats.archive.enabled),
+ * чтобы уже перенесённая история оставалась в ответах GET /stats.
+ */
+@Configuration
+@ConditionalOnProperty(name = "stats.storage.engine", havingValue = "jpa", matchIfMissing = true)
+public class ArchiveConfig {
+
+    @Bean
+    public HitArchive hitArchive(@Value("${stats.archive.directory:data/hits-archive}") Path directory)
+            throws IOException {
+        return new HitArchive(directory);
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.stats.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.stats.storage.HitLog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Включается при stats.storage.engine=log: хиты хранятся в сегментных файлах журнала, а не в базе.
+ */
+@Configuration
+@ConditionalOnProperty(name = "stats.storage.engine", havingValue = "log")
+public class LogStorageConfig {
+
+    @Bean
+    public HitLog hitLog(@Value("${stats.log.directory:data/hits-log}") Path directory,
+                         @Value("${stats.log.segment-size:64MB}") DataSize segmentSize,
+                         @Value("${stats.log.fsync:false}") boolean fsync) throws IOException {
+        return new HitLog(directory, segmentSize.toBytes(), fsync);
+    }
+}
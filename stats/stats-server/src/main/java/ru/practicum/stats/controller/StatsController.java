@@ -1,14 +1,28 @@
 package ru.practicum.stats.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.HitBucketDto;
+import ru.practicum.HitBulkResultDto;
+import ru.practicum.HitChangesDto;
 import ru.practicum.HitDto;
 import ru.practicum.HitStatDto;
 import ru.practicum.stats.ErrorResponse;
+import ru.practicum.stats.service.HitIngestService;
+import ru.practicum.stats.service.StatsQuery;
 import ru.practicum.stats.service.StatsService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.io.StringWriter;
 import java.util.List;
 
@@ -17,6 +31,8 @@ import java.util.List;
 public class StatsController {
 
     private final StatsService statsService;
+    private final HitIngestService hitIngestService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
@@ -24,12 +40,65 @@ public class StatsController {
         return statsService.saveHit(hitDto);
     }
 
+    @PostMapping(value = "/hits/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public HitBulkResultDto saveHits(InputStream ndjson) {
+        return hitIngestService.saveHits(ndjson);
+    }
+
     @GetMapping("/stats")
     public List<HitStatDto> getHits(@RequestParam String start,
                              @RequestParam String end,
                              @RequestParam(required = false) List<String> uris,
-                             @RequestParam(required = false, defaultValue = "false") Boolean unique) {
-        return statsService.getHits(start, end, uris, unique);
+                             @RequestParam(required = false, defaultValue = "false") Boolean unique,
+                             @RequestParam(required = false) Double sample) {
+        return sample == null
+                ? statsService.getHits(start, end, uris, unique)
+                : statsService.getSampledHits(start, end, uris, unique, sample);
+    }
+
+    @GetMapping("/stats/changes")
+    public HitChangesDto getChanges(@RequestParam(defaultValue = "0") long afterId,
+                                    @RequestParam(defaultValue = "10000") int limit,
+                                    @RequestParam(required = false) String uriPrefix) {
+        return statsService.getChanges(afterId, limit, uriPrefix);
+    }
+
+    @GetMapping("/stats/histogram")
+    public List<HitBucketDto> getHistogram(@RequestParam String start,
+                                           @RequestParam String end,
+                                           @RequestParam(required = false) List<String> uris,
+                                           @RequestParam(required = false, defaultValue = "hour") String interval,
+                                           @RequestParam(required = false, defaultValue = "false") Boolean unique) {
+        return statsService.getHistogram(start, end, uris, interval, unique);
+    }
+
+    @GetMapping(value = "/stats/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamHits(@RequestParam(required = false) String start,
+                                            @RequestParam(required = false) String end,
+                                            @RequestParam(required = false) List<String> uris,
+                                            @RequestParam(required = false, defaultValue = "false") Boolean unique,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String orderBy) {
+        // Параметры проверяются до начала потока, чтобы ошибка пришла обычным ответом 400
+        StatsQuery query = StatsQuery.of(start, end, uris, unique, limit, orderBy);
+        statsService.checkStreamable(query);
+        ObjectWriter writer = objectMapper.writerFor(HitStatDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            statsService.streamHits(query, stat -> {
+                try {
+                    writer.writeValue(generator, stat);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.close();
+        };
     }
 
     @ExceptionHandler
@@ -16,10 +16,13 @@ import java.time.LocalDateTime;
 @Table(name = "hits")
 public class Hit {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hits_seq")
+    @SequenceGenerator(name = "hits_seq", sequenceName = "hits_seq", allocationSize = 50)
     private Long id;
-    private String app;
-    private String uri;
+    @Column(name = "app_id")
+    private Integer appId;
+    @Column(name = "uri_id")
+    private Integer uriId;
     private String ip;
     @Column(name = "ts")
     private LocalDateTime timestamp;
@@ -11,28 +11,27 @@ import static ru.practicum.stats.utils.Constants.formatter;
 @UtilityClass
 public class HitDtoMapper {
 
-    public static HitDto toHitDto(Hit hit) {
+    public static HitDto toHitDto(Hit hit, String app, String uri) {
         String dateTime = hit.getTimestamp().format(formatter);
 
         return new HitDto(
                 hit.getId(),
-                hit.getApp(),
-                hit.getUri(),
+                app,
+                uri,
                 hit.getIp(),
                 dateTime
         );
     }
 
-    public static Hit dtoToHit(HitDto hitDto) {
+    public static Hit dtoToHit(HitDto hitDto, int appId, int uriId) {
 
         LocalDateTime localDateTime = LocalDateTime.parse(hitDto.getTimestamp(), formatter);
         Hit hit = new Hit();
         hit.setId(hitDto.getId());
-        hit.setApp(hitDto.getApp());
-        hit.setUri(hitDto.getUri());
+        hit.setAppId(appId);
+        hit.setUriId(uriId);
         hit.setIp(hitDto.getIp());
         hit.setTimestamp(localDateTime);
         return hit;
     }
 }
-
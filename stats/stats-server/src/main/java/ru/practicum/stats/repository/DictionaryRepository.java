@@ -0,0 +1,70 @@
+package ru.practicum.stats.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.jdbc.DatabaseDialect;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Таблицы-словари apps и uris. Вставка идемпотентна, поэтому её можно выполнять вне транзакции записи хита:
+ * строка словаря без хитов ничему не мешает.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DictionaryRepository {
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Dictionary {
+        APPS("apps", "name"),
+        URIS("uris", "uri");
+
+        private final String table;
+        private final String column;
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DatabaseDialect databaseDialect;
+
+    public void insertIfAbsent(Dictionary dictionary, String value) {
+        // H2 не поддерживает ON CONFLICT вне режима совместимости, MERGE ... WHEN NOT MATCHED даёт ту же семантику
+        String sql = databaseDialect.isPostgres()
+                ? "INSERT INTO " + dictionary.getTable() + " (" + dictionary.getColumn() + ") VALUES (:value) "
+                + "ON CONFLICT (" + dictionary.getColumn() + ") DO NOTHING"
+                : "MERGE INTO " + dictionary.getTable() + " d USING (VALUES (CAST(:value AS VARCHAR(512)))) AS s (v) "
+                + "ON d." + dictionary.getColumn() + " = s.v "
+                + "WHEN NOT MATCHED THEN INSERT (" + dictionary.getColumn() + ") VALUES (s.v)";
+        jdbcTemplate.update(sql, new MapSqlParameterSource("value", value));
+    }
+
+    public Map<String, Integer> findIds(Dictionary dictionary, Collection<String> values) {
+        Map<String, Integer> ids = new HashMap<>();
+        if (values.isEmpty()) {
+            return ids;
+        }
+        jdbcTemplate.query("SELECT id, " + dictionary.getColumn() + " AS v FROM " + dictionary.getTable()
+                        + " WHERE " + dictionary.getColumn() + " IN (:values)",
+                new MapSqlParameterSource("values", values),
+                (RowCallbackHandler) rs -> ids.put(rs.getString("v"), rs.getInt("id")));
+        return ids;
+    }
+
+    public Map<Integer, String> findValues(Dictionary dictionary, Collection<Integer> ids) {
+        Map<Integer, String> values = new HashMap<>();
+        if (ids.isEmpty()) {
+            return values;
+        }
+        jdbcTemplate.query("SELECT id, " + dictionary.getColumn() + " AS v FROM " + dictionary.getTable()
+                        + " WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids),
+                (RowCallbackHandler) rs -> values.put(rs.getInt("id"), rs.getString("v")));
+        return values;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.stats.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.storage.HitRecord;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Выборка и удаление строк hits, переносимых в архив.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HitArchiveRepository {
+
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Самые старые по id хиты раньше cutoff вместе с именами приложения и uri.
+     */
+    public List<HitRecord> findOlderThan(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.query("SELECT h.id, h.ts, a.name AS app, u.uri AS uri, h.ip FROM hits h "
+                        + "JOIN apps a ON a.id = h.app_id JOIN uris u ON u.id = h.uri_id "
+                        + "WHERE h.ts < :cutoff ORDER BY h.id LIMIT :limit",
+                new MapSqlParameterSource("cutoff", cutoff).addValue("limit", limit),
+                (rs, rowNum) -> new HitRecord(rs.getLong("id"),
+                        HitRecord.toEpochSecond(rs.getObject("ts", LocalDateTime.class)),
+                        rs.getString("app"), rs.getString("uri"), rs.getString("ip")));
+    }
+
+    // Удаление по списку id, а не по диапазону: хит со старым временем мог появиться после выборки
+    public void deleteByIds(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+            jdbcTemplate.update("DELETE FROM hits WHERE id IN (:ids)", new MapSqlParameterSource("ids",
+                    ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size()))));
+        }
+    }
+
+    public boolean existsById(long id) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM hits WHERE id = :id)",
+                new MapSqlParameterSource("id", id), Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.stats.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.jdbc.DatabaseDialect;
+import ru.practicum.stats.entity.Hit;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Пакетная запись хитов в обход Hibernate. Идентификаторы берутся из значения по умолчанию hits.id,
+ * то есть из той же последовательности, что и у сущности Hit, поэтому пересечений нет.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HitBulkRepository {
+
+    private static final String COPY_SQL = "COPY hits (app_id, uri_id, ip, ts) FROM STDIN (FORMAT BINARY)";
+    private static final String INSERT_SQL = "INSERT INTO hits (app_id, uri_id, ip, ts) VALUES (?, ?, ?, ?)";
+    private static final byte[] COPY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    // В бинарном формате COPY timestamp передаётся в микросекундах от 2000-01-01
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect databaseDialect;
+
+    public boolean supportsCopy() {
+        return databaseDialect.isPostgres();
+    }
+
+    /**
+     * Запись через COPY ... FROM STDIN в бинарном формате: без разбора и планирования на каждую строку.
+     * Работает только с PostgreSQL.
+     */
+    public long copy(List<Hit> hits) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            PGCopyOutputStream copyStream = new PGCopyOutputStream(
+                    connection.unwrap(PGConnection.class), COPY_SQL, COPY_BUFFER_SIZE);
+            try {
+                DataOutputStream out = new DataOutputStream(copyStream);
+                out.write(COPY_SIGNATURE);
+                out.writeInt(0);
+                out.writeInt(0);
+                for (Hit hit : hits) {
+                    byte[] ip = hit.getIp().getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(4);
+                    out.writeInt(4);
+                    out.writeInt(hit.getAppId());
+                    out.writeInt(4);
+                    out.writeInt(hit.getUriId());
+                    out.writeInt(ip.length);
+                    out.write(ip);
+                    out.writeInt(8);
+                    out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, hit.getTimestamp()));
+                }
+                out.writeShort(-1);
+                out.flush();
+                return copyStream.endCopy();
+            } catch (IOException | RuntimeException e) {
+                if (copyStream.isActive()) {
+                    copyStream.cancelCopy();
+                }
+                throw new SQLException("COPY into hits failed: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    public long insert(List<Hit> hits) {
+        List<Object[]> args = hits.stream()
+                .map(hit -> new Object[]{hit.getAppId(), hit.getUriId(), hit.getIp(), hit.getTimestamp()})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+        return hits.size();
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.stats.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.HitBucketDto;
+import ru.practicum.stats.service.HistogramInterval;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static ru.practicum.stats.utils.Constants.formatter;
+
+/**
+ * Гистограмма просмотров за один проход по hits: строки группируются по идентификаторам app, uri и началу корзины.
+ * Пустые корзины не возвращаются.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HitHistogramRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * @param uriIds идентификаторы uri для фильтра или null, если фильтра нет
+     */
+    public List<HitBucketDto> getHistogram(LocalDateTime start, LocalDateTime end, Collection<Integer> uriIds,
+                                           HistogramInterval interval, boolean unique) {
+        // Единица берётся из перечисления, а не из запроса клиента, поэтому подставляется в текст SQL
+        String bucket = "DATE_TRUNC('" + interval.getTruncUnit() + "', ts)";
+        StringBuilder sql = new StringBuilder("SELECT a.name AS app, u.uri AS uri, g.bucket AS bucket, g.hits AS hits")
+                .append(unique ? ", g.unique_hits AS unique_hits" : "")
+                .append(" FROM (SELECT app_id, uri_id, ")
+                .append(bucket).append(" AS bucket, COUNT(ip) AS hits");
+        if (unique) {
+            sql.append(", COUNT(DISTINCT ip) AS unique_hits");
+        }
+        sql.append(" FROM hits WHERE ts >= :start AND ts < :end");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", start)
+                .addValue("end", end);
+        if (uriIds != null) {
+            sql.append(" AND uri_id IN (:uriIds)");
+            params.addValue("uriIds", uriIds);
+        }
+        sql.append(" GROUP BY app_id, uri_id, ").append(bucket).append(") g")
+                .append(" JOIN apps a ON a.id = g.app_id JOIN uris u ON u.id = g.uri_id")
+                .append(" ORDER BY a.name, u.uri, g.bucket");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new HitBucketDto(
+                rs.getString("app"),
+                rs.getString("uri"),
+                rs.getTimestamp("bucket").toLocalDateTime().format(formatter),
+                rs.getLong("hits"),
+                unique ? rs.getLong("unique_hits") : null));
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.stats.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.service.StatsQuery;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Частичные агрегаты статистики для параллельного выполнения: по интервалу времени или по диапазону uri.
+ * Каждый вызов - отдельный запрос без транзакции, то есть на своём соединении.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HitPartitionRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Часть выборки запроса: время в [from, to) и uri_id в [minUriId, maxUriId].
+     * Диапазоны uri не пересекаются, поэтому каждая пара (приложение, uri) целиком попадает в одну часть
+     * и COUNT(DISTINCT ip) по ней не нужно складывать.
+     */
+    public record Partition(LocalDateTime from, LocalDateTime to, int minUriId, int maxUriId) {
+
+        public static Partition ofTime(LocalDateTime from, LocalDateTime to) {
+            return new Partition(from, to, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+
+        boolean hasUriRange() {
+            return minUriId != Integer.MIN_VALUE || maxUriId != Integer.MAX_VALUE;
+        }
+    }
+
+    public record PartitionCount(int appId, int uriId, long hits) {
+    }
+
+    public record TimeRange(LocalDateTime min, LocalDateTime max) {
+    }
+
+    /**
+     * Время первого и последнего хита в границах запроса; с индексом по ts - два чтения индекса.
+     *
+     * @param uriIds идентификаторы uri для фильтра или null, если фильтра нет
+     */
+    public Optional<TimeRange> findTimeRange(StatsQuery query, Collection<Integer> uriIds) {
+        StringBuilder sql = new StringBuilder("SELECT MIN(ts) AS min_ts, MAX(ts) AS max_ts FROM hits WHERE 1 = 1");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (query.hasRange()) {
+            sql.append(" AND ts > :start AND ts < :end");
+            params.addValue("start", query.start()).addValue("end", query.end());
+        }
+        if (uriIds != null) {
+            sql.append(" AND uri_id IN (:uriIds)");
+            params.addValue("uriIds", uriIds);
+        }
+        TimeRange range = jdbcTemplate.queryForObject(sql.toString(), params, (rs, rowNum) -> new TimeRange(
+                rs.getObject("min_ts", LocalDateTime.class), rs.getObject("max_ts", LocalDateTime.class)));
+        return range == null || range.min() == null ? Optional.empty() : Optional.of(range);
+    }
+
+    /**
+     * Наибольший выданный идентификатор uri или 0, если словарь пуст; читается по первичному ключу.
+     */
+    public int findMaxUriId() {
+        Integer maxUriId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM uris", new MapSqlParameterSource(),
+                Integer.class);
+        return maxUriId == null ? 0 : maxUriId;
+    }
+
+    /**
+     * @param uriIds идентификаторы uri для фильтра или null, если фильтра нет
+     */
+    public void count(StatsQuery query, Collection<Integer> uriIds, Partition partition,
+                      Consumer<PartitionCount> consumer) {
+        StringBuilder sql = new StringBuilder("SELECT app_id, uri_id, ")
+                .append(query.unique() ? "COUNT(DISTINCT ip)" : "COUNT(ip)")
+                .append(" AS hits FROM hits WHERE ts >= :from AND ts < :to");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", partition.from())
+                .addValue("to", partition.to());
+
+        if (query.hasRange()) {
+            sql.append(" AND ts > :start AND ts < :end");
+            params.addValue("start", query.start()).addValue("end", query.end());
+        }
+        if (uriIds != null) {
+            sql.append(" AND uri_id IN (:uriIds)");
+            params.addValue("uriIds", uriIds);
+        }
+        if (partition.hasUriRange()) {
+            // Диапазон читается по hits_uri_ip_idx: часть не просматривает строки чужих uri
+            sql.append(" AND uri_id BETWEEN :minUriId AND :maxUriId");
+            params.addValue("minUriId", partition.minUriId()).addValue("maxUriId", partition.maxUriId());
+        }
+        sql.append(" GROUP BY app_id, uri_id");
+
+        jdbcTemplate.query(sql.toString(), params, (RowCallbackHandler) rs -> consumer.accept(
+                new PartitionCount(rs.getInt("app_id"), rs.getInt("uri_id"), rs.getLong("hits"))));
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.stats.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.HitStatDto;
+import ru.practicum.jdbc.DatabaseDialect;
+import ru.practicum.stats.archive.HitKey;
+import ru.practicum.stats.service.StatsOrder;
+import ru.practicum.stats.service.StatsQuery;
+import ru.practicum.stats.service.StatsSample;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Агрегация статистики в базе с построчной выдачей результата.
+ * Строки читаются курсором порциями по fetch-size, поэтому работать нужно внутри транзакции:
+ * PostgreSQL держит курсор только при выключенном autocommit.
+ */
+@Repository
+public class HitStatsStreamRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DatabaseDialect databaseDialect;
+
+    public HitStatsStreamRepository(DataSource dataSource,
+                                    DatabaseDialect databaseDialect,
+                                    @Value("${stats.stream.fetch-size:1000}") int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+        this.databaseDialect = databaseDialect;
+    }
+
+    /**
+     * Группировка идёт по целочисленным идентификаторам словарей, имена подставляются уже к агрегатам.
+     *
+     * @param uriIds идентификаторы uri для фильтра или null, если фильтра нет
+     */
+    public void aggregate(StatsQuery query, Collection<Integer> uriIds, Consumer<HitStatDto> consumer) {
+        aggregate(query, uriIds, null, consumer);
+    }
+
+    /**
+     * То же по выборке хитов: в hits выдаётся число хитов или различных ip, попавших в выборку.
+     *
+     * @param sample выборка или null для точного подсчёта
+     */
+    public void aggregate(StatsQuery query, Collection<Integer> uriIds, StatsSample sample,
+                          Consumer<HitStatDto> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder("SELECT a.name AS app, u.uri AS uri, g.hits AS hits FROM (")
+                .append("SELECT app_id, uri_id, ")
+                .append(query.unique() ? "COUNT(DISTINCT ip)" : "COUNT(ip)")
+                .append(" AS hits FROM hits");
+        // BERNOULLI отбирает каждый хит независимо, как предполагает биномиальный интервал StatsSample.
+        // SYSTEM брал бы страницы целиком, а хиты одной страницы записаны подряд и часто относятся к одному uri,
+        // поэтому разброс оценки был бы шире интервала. Страницы читаются все, экономится группировка
+        boolean tableSample = sample != null && !query.unique() && databaseDialect.isPostgres();
+        if (tableSample) {
+            sql.append(" TABLESAMPLE BERNOULLI (").append(sample.percent()).append(") REPEATABLE (0)");
+        }
+        sql.append(" WHERE 1 = 1");
+        if (sample != null && !tableSample) {
+            sql.append(query.unique() ? ipSampleFilter() : " AND MOD(ORA_HASH(id), :sampleBuckets) < :sampleThreshold");
+            addSampleParams(params, sample);
+        }
+
+        if (query.hasRange()) {
+            sql.append(" AND ts > :start AND ts < :end");
+            params.addValue("start", query.start()).addValue("end", query.end());
+        }
+        if (uriIds != null) {
+            sql.append(" AND uri_id IN (:uriIds)");
+            params.addValue("uriIds", uriIds);
+        }
+        sql.append(" GROUP BY app_id, uri_id) g")
+                .append(" JOIN apps a ON a.id = g.app_id JOIN uris u ON u.id = g.uri_id ORDER BY ")
+                .append(query.orderBy() == StatsOrder.URI ? "u.uri, a.name" : "g.hits DESC, g.app_id, g.uri_id");
+        if (query.limit() != null) {
+            sql.append(" LIMIT :limit");
+            params.addValue("limit", query.limit());
+        }
+
+        jdbcTemplate.query(sql.toString(), params, (RowCallbackHandler) rs ->
+                consumer.accept(new HitStatDto(rs.getString("app"), rs.getString("uri"), rs.getInt("hits"))));
+    }
+
+    /**
+     * Различные ip по парам (приложение, uri) - для объединения уникальных просмотров с архивом.
+     *
+     * @param sample выборка ip или null
+     */
+    public void distinctIps(StatsQuery query, Collection<Integer> uriIds, StatsSample sample,
+                            BiConsumer<HitKey, String> consumer) {
+        StringBuilder sql = new StringBuilder("SELECT a.name AS app, u.uri AS uri, d.ip AS ip FROM (")
+                .append("SELECT DISTINCT app_id, uri_id, ip FROM hits WHERE uri_id IN (:uriIds)");
+        MapSqlParameterSource params = new MapSqlParameterSource("uriIds", uriIds);
+        if (sample != null) {
+            sql.append(ipSampleFilter());
+            addSampleParams(params, sample);
+        }
+        if (query.hasRange()) {
+            sql.append(" AND ts > :start AND ts < :end");
+            params.addValue("start", query.start()).addValue("end", query.end());
+        }
+        sql.append(") d JOIN apps a ON a.id = d.app_id JOIN uris u ON u.id = d.uri_id");
+
+        jdbcTemplate.query(sql.toString(), params, (RowCallbackHandler) rs ->
+                consumer.accept(new HitKey(rs.getString("app"), rs.getString("uri")), rs.getString("ip")));
+    }
+
+    // Отбор ip совпадает со StatsSample.includesIp: первые 4 байта MD5 как int без знака
+    private String ipSampleFilter() {
+        return databaseDialect.isPostgres()
+                ? " AND (('x' || substr(md5(ip), 1, 8))::bit(32)::int & 2147483647) % :sampleBuckets < :sampleThreshold"
+                : " AND MOD(BITAND(CAST(SUBSTRING(HASH('MD5', ip), 1, 4) AS INT), 2147483647), :sampleBuckets)"
+                + " < :sampleThreshold";
+    }
+
+    private static void addSampleParams(MapSqlParameterSource params, StatsSample sample) {
+        params.addValue("sampleBuckets", StatsSample.BUCKETS).addValue("sampleThreshold", sample.threshold());
+    }
+}
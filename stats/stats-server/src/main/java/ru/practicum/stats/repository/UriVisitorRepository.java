@@ -0,0 +1,85 @@
+package ru.practicum.stats.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.HitStatDto;
+import ru.practicum.jdbc.DatabaseDialect;
+import ru.practicum.stats.entity.Hit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Первые посещения uri с каждого ip - источник ленты изменений уникальных просмотров.
+ * Строки не архивируются вместе с hits, а seq берётся из последовательности без пула и растёт
+ * в порядке вставки на всех экземплярах.
+ */
+@Repository
+public class UriVisitorRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DatabaseDialect databaseDialect;
+    private final Duration settleTime;
+
+    public UriVisitorRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                                DatabaseDialect databaseDialect,
+                                @Value("${stats.changes.settle-time:30s}") Duration settleTime) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseDialect = databaseDialect;
+        this.settleTime = settleTime;
+    }
+
+    /**
+     * Вызывается в транзакции записи хитов: посетитель появляется в ленте только вместе со своим хитом.
+     * Повторы внутри порции отбрасываются до записи.
+     */
+    public void insertIfAbsent(List<Hit> hits) {
+        String sql = databaseDialect.isPostgres()
+                ? "INSERT INTO uri_visitors (uri_id, ip, app_id) VALUES (:uriId, :ip, :appId) "
+                + "ON CONFLICT (uri_id, ip) DO NOTHING"
+                : "MERGE INTO uri_visitors v USING (VALUES (CAST(:uriId AS INTEGER), CAST(:ip AS VARCHAR(32)), "
+                + "CAST(:appId AS INTEGER))) AS s (uri_id, ip, app_id) "
+                + "ON v.uri_id = s.uri_id AND v.ip = s.ip "
+                + "WHEN NOT MATCHED THEN INSERT (uri_id, ip, app_id) VALUES (s.uri_id, s.ip, s.app_id)";
+        Set<String> seen = new HashSet<>();
+        SqlParameterSource[] params = hits.stream()
+                .filter(hit -> seen.add(hit.getUriId() + " " + hit.getIp()))
+                .map(hit -> new MapSqlParameterSource("uriId", hit.getUriId())
+                        .addValue("ip", hit.getIp())
+                        .addValue("appId", hit.getAppId()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(sql, params);
+    }
+
+    /**
+     * Наибольший seq, до которого лента уже не может пополниться.
+     * created_at - время начала вставившей транзакции, а seq выдаётся внутри неё, поэтому если любая транзакция
+     * записи хитов короче половины settle-time, все строки с seq не больше найденного уже зафиксированы.
+     */
+    public long findSettledSeq() {
+        // Время базы, а не приложения: created_at тоже ставит база
+        LocalDateTime now = jdbcTemplate.getJdbcTemplate()
+                .queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+        Long seq = jdbcTemplate.queryForObject("SELECT MAX(seq) FROM uri_visitors WHERE created_at <= :cutoff",
+                new MapSqlParameterSource("cutoff", now.minus(settleTime)), Long.class);
+        return seq == null ? 0 : seq;
+    }
+
+    // Новые уникальные просмотры в интервале (afterSeq, toSeq]
+    public List<HitStatDto> findDelta(long afterSeq, long toSeq, String uriPattern) {
+        return jdbcTemplate.query("SELECT a.name AS app, u.uri AS uri, COUNT(*) AS hits FROM uri_visitors v "
+                        + "JOIN uris u ON u.id = v.uri_id JOIN apps a ON a.id = v.app_id "
+                        + "WHERE v.seq > :afterSeq AND v.seq <= :toSeq AND u.uri LIKE :uriPattern "
+                        + "GROUP BY v.app_id, v.uri_id, a.name, u.uri",
+                new MapSqlParameterSource("afterSeq", afterSeq)
+                        .addValue("toSeq", toSeq)
+                        .addValue("uriPattern", uriPattern),
+                (rs, rowNum) -> new HitStatDto(rs.getString("app"), rs.getString("uri"), rs.getInt("hits")));
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.stats.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import ru.practicum.stats.archive.HitArchive;
+import ru.practicum.stats.repository.HitArchiveRepository;
+import ru.practicum.stats.storage.HitRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Переносит хиты старше retention из таблицы hits в архив, чтобы таблица и её индексы не росли без предела.
+ * За один запуск пишется не больше max-segments сегментов, остаток переносится следующими запусками.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${stats.archive.enabled:false} and '${stats.storage.engine:jpa}' == 'jpa'")
+public class HitArchiveJob {
+
+    private final HitArchive hitArchive;
+    private final HitArchiveRepository hitArchiveRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final Duration retention;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    public HitArchiveJob(HitArchive hitArchive,
+                         HitArchiveRepository hitArchiveRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${stats.archive.retention:90d}") Duration retention,
+                         @Value("${stats.archive.segment-size:200000}") int segmentSize,
+                         @Value("${stats.archive.max-segments:10}") int maxSegments) {
+        this.hitArchive = hitArchive;
+        this.hitArchiveRepository = hitArchiveRepository;
+        this.transactionManager = transactionManager;
+        this.retention = retention;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+    }
+
+    @Scheduled(initialDelayString = "${stats.archive.interval:1h}", fixedDelayString = "${stats.archive.interval:1h}")
+    public void archive() {
+        try {
+            recoverPending();
+            LocalDateTime cutoff = LocalDateTime.now().minus(retention).truncatedTo(ChronoUnit.SECONDS);
+            for (int segment = 0; segment < maxSegments; segment++) {
+                List<HitRecord> hits = hitArchiveRepository.findOlderThan(cutoff, segmentSize);
+                if (hits.isEmpty()) {
+                    return;
+                }
+                List<Long> ids = hits.stream().map(HitRecord::id).toList();
+                Path pending = hitArchive.prepare(hits);
+                TransactionStatus status = deleteUncommitted(ids, pending);
+                hitArchive.publish(pending, () -> transactionManager.commit(status));
+                if (hits.size() < segmentSize) {
+                    return;
+                }
+            }
+            log.info("Hit archiving reached {} segments, continuing on next run", maxSegments);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Hit archiving failed, will retry on next run: {}", e.getMessage());
+        }
+    }
+
+    // Удаление идёт без блокировки архива; публикация фиксирует транзакцию уже под ней
+    private TransactionStatus deleteUncommitted(List<Long> ids, Path pending) throws IOException {
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            hitArchiveRepository.deleteByIds(ids);
+        } catch (RuntimeException e) {
+            transactionManager.rollback(status);
+            hitArchive.discard(pending);
+            throw e;
+        }
+        return status;
+    }
+
+    // Удаление строк сегмента атомарно, поэтому по первому id видно, успело ли оно завершиться до сбоя.
+    // Недописанный файл означает, что до удаления дело не дошло
+    private void recoverPending() throws IOException {
+        for (Path pending : hitArchive.pendingSegments()) {
+            long minId;
+            try {
+                minId = hitArchive.minIdOf(pending);
+            } catch (IOException e) {
+                log.warn("Discarding unreadable archive segment {}: {}", pending.getFileName(), e.getMessage());
+                hitArchive.discard(pending);
+                continue;
+            }
+            if (hitArchiveRepository.existsById(minId)) {
+                log.info("Discarding unpublished archive segment {}", pending.getFileName());
+                hitArchive.discard(pending);
+            } else {
+                log.info("Publishing archive segment {} left after restart", pending.getFileName());
+                hitArchive.publish(pending, () -> {
+                });
+            }
+        }
+    }
+}
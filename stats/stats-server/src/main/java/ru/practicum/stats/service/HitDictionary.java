@@ -0,0 +1,142 @@
+package ru.practicum.stats.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.repository.DictionaryRepository;
+import ru.practicum.stats.repository.DictionaryRepository.Dictionary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Двунаправленный кэш словарей приложений и uri.
+ * Идентификатор словарной строки не меняется, поэтому записи кэша никогда не устаревают;
+ * размер кэша ограничен числом различных uri, а не числом хитов.
+ */
+@Component
+@RequiredArgsConstructor
+public class HitDictionary {
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final DictionaryRepository dictionaryRepository;
+    private final Map<Dictionary, Entries> entries = new EnumMap<>(Map.of(
+            Dictionary.APPS, new Entries(),
+            Dictionary.URIS, new Entries()));
+
+    /**
+     * Идентификатор значения; отсутствующее значение добавляется в словарь.
+     */
+    public int id(Dictionary dictionary, String value) {
+        Integer id = entries.get(dictionary).ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        return ids(dictionary, List.of(value)).get(value);
+    }
+
+    /**
+     * Идентификаторы набора значений одним-двумя запросами на порцию; отсутствующие значения добавляются.
+     */
+    public Map<String, Integer> ids(Dictionary dictionary, Collection<String> values) {
+        Entries cached = entries.get(dictionary);
+        Map<String, Integer> result = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String value : values) {
+            Integer id = cached.ids.get(value);
+            if (id != null) {
+                result.put(value, id);
+            } else {
+                missing.add(value);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<String, Integer> found = load(dictionary, missing);
+        for (String value : missing) {
+            if (!found.containsKey(value)) {
+                dictionaryRepository.insertIfAbsent(dictionary, value);
+            }
+        }
+        if (found.size() < missing.size()) {
+            found = load(dictionary, missing);
+        }
+        for (String value : missing) {
+            Integer id = found.get(value);
+            if (id == null) {
+                throw new IllegalStateException("Failed to register " + dictionary + " value: " + value);
+            }
+            result.put(value, id);
+        }
+        return result;
+    }
+
+    /**
+     * Идентификаторы только уже известных значений, словарь не пополняется.
+     */
+    public List<Integer> existingIds(Dictionary dictionary, Collection<String> values) {
+        Entries cached = entries.get(dictionary);
+        List<Integer> result = new ArrayList<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String value : values) {
+            Integer id = cached.ids.get(value);
+            if (id != null) {
+                result.add(id);
+            } else {
+                missing.add(value);
+            }
+        }
+        if (!missing.isEmpty()) {
+            result.addAll(load(dictionary, missing).values());
+        }
+        return result;
+    }
+
+    public String value(Dictionary dictionary, int id) {
+        Entries cached = entries.get(dictionary);
+        String value = cached.values.get(id);
+        if (value == null) {
+            value = dictionaryRepository.findValues(dictionary, List.of(id)).get(id);
+            if (value == null) {
+                throw new IllegalStateException("Unknown " + dictionary + " id: " + id);
+            }
+            cached.put(value, id);
+        }
+        return value;
+    }
+
+    private Map<String, Integer> load(Dictionary dictionary, Collection<String> values) {
+        Entries cached = entries.get(dictionary);
+        Map<String, Integer> found = new HashMap<>();
+        List<String> chunk = new ArrayList<>(LOOKUP_CHUNK_SIZE);
+        for (String value : values) {
+            chunk.add(value);
+            if (chunk.size() == LOOKUP_CHUNK_SIZE) {
+                found.putAll(dictionaryRepository.findIds(dictionary, chunk));
+                chunk.clear();
+            }
+        }
+        found.putAll(dictionaryRepository.findIds(dictionary, chunk));
+        found.forEach(cached::put);
+        return found;
+    }
+
+    private static class Entries {
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final Map<Integer, String> values = new ConcurrentHashMap<>();
+
+        private void put(String value, int id) {
+            ids.put(value, id);
+            values.put(id, value);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.stats.service;
+
+import ru.practicum.HitBulkResultDto;
+
+import java.io.InputStream;
+
+public interface HitIngestService {
+
+    /**
+     * Сохраняет хиты из NDJSON (по одному HitDto на строку) порциями.
+     * Крупные порции на PostgreSQL пишутся через COPY, остальные - пакетными INSERT.
+     * Каждая порция сохраняется в своей транзакции: при ошибке уже записанные порции остаются.
+     */
+    HitBulkResultDto saveHits(InputStream ndjson);
+}
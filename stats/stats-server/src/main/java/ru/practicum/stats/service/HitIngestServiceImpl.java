@@ -0,0 +1,128 @@
+package ru.practicum.stats.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.HitBulkResultDto;
+import ru.practicum.HitDto;
+import ru.practicum.stats.entity.Hit;
+import ru.practicum.stats.repository.DictionaryRepository.Dictionary;
+import ru.practicum.stats.repository.HitBulkRepository;
+import ru.practicum.stats.repository.UriVisitorRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static ru.practicum.stats.mapper.HitDtoMapper.dtoToHit;
+import static ru.practicum.stats.utils.Constants.formatter;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "stats.storage.engine", havingValue = "jpa", matchIfMissing = true)
+public class HitIngestServiceImpl implements HitIngestService {
+
+    private final HitBulkRepository hitBulkRepository;
+    private final UriVisitorRepository uriVisitorRepository;
+    private final HitDictionary hitDictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader hitReader;
+    private final int batchSize;
+    private final int copyThreshold;
+
+    public HitIngestServiceImpl(HitBulkRepository hitBulkRepository,
+                                UriVisitorRepository uriVisitorRepository,
+                                HitDictionary hitDictionary,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${stats.ingest.batch-size:10000}") int batchSize,
+                                @Value("${stats.ingest.copy-threshold:1000}") int copyThreshold) {
+        this.hitBulkRepository = hitBulkRepository;
+        this.uriVisitorRepository = uriVisitorRepository;
+        this.hitDictionary = hitDictionary;
+        this.transactionTemplate = transactionTemplate;
+        this.hitReader = objectMapper.readerFor(HitDto.class);
+        this.batchSize = batchSize;
+        this.copyThreshold = copyThreshold;
+    }
+
+    @Override
+    public HitBulkResultDto saveHits(InputStream ndjson) {
+        long received = 0;
+        long copied = 0;
+        long inserted = 0;
+        List<HitDto> batch = new ArrayList<>(batchSize);
+
+        try (MappingIterator<HitDto> hits = hitReader.readValues(ndjson)) {
+            while (hits.hasNextValue()) {
+                HitDto hitDto = hits.nextValue();
+                received++;
+                validate(hitDto, received);
+                batch.add(hitDto);
+                if (batch.size() == batchSize) {
+                    BatchResult result = write(batch);
+                    copied += result.copied();
+                    inserted += result.inserted();
+                    batch.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid hit #" + (received + 1) + ": " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read hits", e);
+        }
+        BatchResult result = write(batch);
+        copied += result.copied();
+        inserted += result.inserted();
+
+        log.info("Bulk saved {} hits: {} via COPY, {} via INSERT", received, copied, inserted);
+        return new HitBulkResultDto(received, copied, inserted);
+    }
+
+    private BatchResult write(List<HitDto> batch) {
+        if (batch.isEmpty()) {
+            return new BatchResult(0, 0);
+        }
+        // Словари пополняются до транзакции порции, как и при записи одиночного хита
+        Map<String, Integer> appIds = hitDictionary.ids(Dictionary.APPS, batch.stream().map(HitDto::getApp).toList());
+        Map<String, Integer> uriIds = hitDictionary.ids(Dictionary.URIS, batch.stream().map(HitDto::getUri).toList());
+        List<Hit> hits = batch.stream()
+                .map(dto -> dtoToHit(dto, appIds.get(dto.getApp()), uriIds.get(dto.getUri())))
+                .toList();
+
+        boolean useCopy = hits.size() >= copyThreshold && hitBulkRepository.supportsCopy();
+        Long written = transactionTemplate.execute(status -> {
+            long saved = useCopy ? hitBulkRepository.copy(hits) : hitBulkRepository.insert(hits);
+            uriVisitorRepository.insertIfAbsent(hits);
+            return saved;
+        });
+        long count = written == null ? 0 : written;
+        return useCopy ? new BatchResult(count, 0) : new BatchResult(0, count);
+    }
+
+    static void validate(HitDto hitDto, long number) {
+        if (hitDto == null || hitDto.getApp() == null || hitDto.getUri() == null
+                || hitDto.getIp() == null || hitDto.getTimestamp() == null) {
+            throw new IllegalArgumentException("Invalid hit #" + number + ": app, uri, ip and timestamp are required");
+        }
+        try {
+            LocalDateTime.parse(hitDto.getTimestamp(), formatter);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid hit #" + number + ": " + e.getMessage(), e);
+        }
+    }
+
+    private record BatchResult(long copied, long inserted) {
+    }
+}
@@ -0,0 +1,253 @@
+package ru.practicum.stats.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import ru.practicum.HitBucketDto;
+import ru.practicum.HitBulkResultDto;
+import ru.practicum.HitChangesDto;
+import ru.practicum.HitDto;
+import ru.practicum.HitStatDto;
+import ru.practicum.stats.storage.HitLog;
+import ru.practicum.stats.storage.HitRecord;
+import ru.practicum.stats.storage.ScanRange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static ru.practicum.stats.utils.Constants.formatter;
+
+/**
+ * Статистика поверх журнала хитов без JPA и базы. Подходит для нагрузки с преобладанием записи:
+ * запись - дописывание в файл, запросы просматривают только сегменты, пересекающиеся по времени или id,
+ * а при фильтре по uri - только записи этих uri по индексу сегмента.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "stats.storage.engine", havingValue = "log")
+public class LogStatsServiceImpl implements StatsService, HitIngestService {
+
+    private static final Comparator<HitStatDto> BY_HITS = Comparator.comparing(HitStatDto::getHits).reversed()
+            .thenComparing(HitStatDto::getApp)
+            .thenComparing(HitStatDto::getUri);
+    private static final Comparator<HitStatDto> BY_URI = Comparator.comparing(HitStatDto::getUri)
+            .thenComparing(HitStatDto::getApp);
+
+    private final HitLog hitLog;
+    private final ObjectReader hitReader;
+    private final int batchSize;
+
+    public LogStatsServiceImpl(HitLog hitLog,
+                               ObjectMapper objectMapper,
+                               @Value("${stats.ingest.batch-size:10000}") int batchSize) {
+        this.hitLog = hitLog;
+        this.hitReader = objectMapper.readerFor(HitDto.class);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public HitDto saveHit(HitDto hitDto) {
+        log.info("Saving hit: {}", hitDto);
+        HitRecord stored = hitLog.append(List.of(toRecord(hitDto))).get(0);
+        return new HitDto(stored.id(), hitDto.getApp(), hitDto.getUri(), hitDto.getIp(), hitDto.getTimestamp());
+    }
+
+    @Override
+    public HitBulkResultDto saveHits(InputStream ndjson) {
+        long received = 0;
+        List<HitRecord> batch = new ArrayList<>(batchSize);
+        try (MappingIterator<HitDto> hits = hitReader.readValues(ndjson)) {
+            while (hits.hasNextValue()) {
+                HitDto hitDto = hits.nextValue();
+                received++;
+                HitIngestServiceImpl.validate(hitDto, received);
+                batch.add(toRecord(hitDto));
+                if (batch.size() == batchSize) {
+                    hitLog.append(batch);
+                    batch.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid hit #" + (received + 1) + ": " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read hits", e);
+        }
+        if (!batch.isEmpty()) {
+            hitLog.append(batch);
+        }
+        log.info("Bulk appended {} hits to hit log", received);
+        return new HitBulkResultDto(received, 0L, received);
+    }
+
+    @Override
+    public List<HitStatDto> getHits(String start, String end, List<String> uris, Boolean unique) {
+        log.info("Retrieving stats: start={}, end={}, uris={}, unique={}", start, end, uris, unique);
+        List<HitStatDto> result = aggregate(StatsQuery.of(start, end, uris, unique, null, null));
+        result.sort(BY_HITS);
+        log.debug("Returning {} sorted stats", result.size());
+        return result;
+    }
+
+    // Журнал всё равно читается целиком, выборка лишь сокращает агрегацию; оценка совпадает по смыслу с базой
+    @Override
+    public List<HitStatDto> getSampledHits(String start, String end, List<String> uris, Boolean unique,
+                                           double sample) {
+        log.info("Retrieving sampled stats: start={}, end={}, uris={}, unique={}, sample={}",
+                start, end, uris, unique, sample);
+        StatsQuery query = StatsQuery.of(start, end, uris, unique, null, null);
+        StatsSample statsSample = StatsSample.of(sample);
+        Predicate<HitRecord> filter = query.unique()
+                ? hit -> statsSample.includesIp(hit.ip())
+                : hit -> statsSample.includesId(hit.id());
+        List<HitStatDto> result = aggregate(query, filter).stream()
+                .map(stat -> statsSample.estimate(stat.getApp(), stat.getUri(), stat.getHits(), 0))
+                .sorted(BY_HITS)
+                .toList();
+        log.debug("Returning {} sampled stats", result.size());
+        return result;
+    }
+
+    @Override
+    public void streamHits(StatsQuery query, Consumer<HitStatDto> consumer) {
+        log.info("Streaming stats: {}", query);
+        List<HitStatDto> result = aggregate(query);
+        result.sort(query.orderBy() == StatsOrder.URI ? BY_URI : BY_HITS);
+        int limit = query.limit() == null ? result.size() : Math.min(query.limit(), result.size());
+        result.subList(0, limit).forEach(consumer);
+    }
+
+    @Override
+    public List<HitBucketDto> getHistogram(String start, String end, List<String> uris, String interval,
+                                           Boolean unique) {
+        log.info("Retrieving histogram: start={}, end={}, uris={}, interval={}, unique={}",
+                start, end, uris, interval, unique);
+        StatsQuery query = StatsQuery.of(start, end, uris, unique, null, null);
+        HistogramInterval bucketInterval = HistogramInterval.from(interval);
+        bucketInterval.checkRange(query.start(), query.end());
+
+        Map<BucketKey, Counter> counters = new HashMap<>();
+        hitLog.scan(ScanRange.ofTime(HitRecord.toEpochSecond(query.start()), HitRecord.toEpochSecond(query.end())),
+                query.uris(),
+                hit -> counters.computeIfAbsent(
+                                new BucketKey(hit.app(), hit.uri(), bucketInterval.truncate(hit.timestamp())),
+                                key -> new Counter(query.unique()))
+                        .add(hit.ip()));
+
+        List<HitBucketDto> histogram = counters.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(BucketKey::app)
+                        .thenComparing(BucketKey::uri)
+                        .thenComparing(BucketKey::bucket)))
+                .map(entry -> new HitBucketDto(entry.getKey().app(), entry.getKey().uri(),
+                        entry.getKey().bucket().format(formatter), entry.getValue().hits,
+                        query.unique() ? (long) entry.getValue().ips.size() : null))
+                .toList();
+        log.debug("Returning {} histogram buckets", histogram.size());
+        return histogram;
+    }
+
+    @Override
+    public HitChangesDto getChanges(long afterId, int limit, String uriPrefix) {
+        log.info("Retrieving hit changes: afterId={}, limit={}, uriPrefix={}", afterId, limit, uriPrefix);
+        if (afterId < 0 || limit <= 0) {
+            throw new IllegalArgumentException("afterId must not be negative and limit must be positive");
+        }
+
+        long lastId = Math.max(hitLog.lastId(), afterId);
+        long toId = Math.min(lastId, afterId + limit);
+        if (toId == afterId) {
+            return new HitChangesDto(afterId, toId, List.of(), false);
+        }
+
+        // Пары (uri, ip) из интервала, затем по индексу uri отбрасываются пары, встречавшиеся до afterId
+        String prefix = uriPrefix == null ? "" : uriPrefix;
+        Map<UriKey, Set<String>> candidates = new HashMap<>();
+        hitLog.scan(ScanRange.ofIds(afterId, toId), null, hit -> {
+            if (hit.uri().startsWith(prefix)) {
+                candidates.computeIfAbsent(new UriKey(hit.app(), hit.uri()), key -> new HashSet<>()).add(hit.ip());
+            }
+        });
+        if (afterId > 0 && !candidates.isEmpty()) {
+            Map<String, Set<String>> seen = new HashMap<>();
+            hitLog.scan(ScanRange.ofIds(Long.MIN_VALUE, afterId),
+                    candidates.keySet().stream().map(UriKey::uri).distinct().toList(),
+                    hit -> seen.computeIfAbsent(hit.uri(), uri -> new HashSet<>()).add(hit.ip()));
+            candidates.forEach((key, ips) -> ips.removeAll(seen.getOrDefault(key.uri(), Set.of())));
+        }
+
+        List<HitStatDto> stats = candidates.entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .map(entry -> new HitStatDto(entry.getKey().app(), entry.getKey().uri(), entry.getValue().size()))
+                .toList();
+        log.debug("Returning {} changed uris up to hit id {}", stats.size(), toId);
+        return new HitChangesDto(afterId, toId, stats, toId < lastId);
+    }
+
+    // Как и в SQL-реализации, /stats учитывает хиты строго между start и end; время хранится в секундах
+    private List<HitStatDto> aggregate(StatsQuery query) {
+        return aggregate(query, hit -> true);
+    }
+
+    private List<HitStatDto> aggregate(StatsQuery query, Predicate<HitRecord> filter) {
+        ScanRange range = query.hasRange()
+                ? ScanRange.ofTime(HitRecord.toEpochSecond(query.start()) + 1, HitRecord.toEpochSecond(query.end()))
+                : ScanRange.all();
+        Map<UriKey, Counter> counters = new HashMap<>();
+        hitLog.scan(range, query.uris(), hit -> {
+            if (filter.test(hit)) {
+                counters.computeIfAbsent(new UriKey(hit.app(), hit.uri()), key -> new Counter(query.unique()))
+                        .add(hit.ip());
+            }
+        });
+
+        List<HitStatDto> result = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> result.add(new HitStatDto(key.app(), key.uri(), (int) counter.value())));
+        return result;
+    }
+
+    private static HitRecord toRecord(HitDto hitDto) {
+        return HitRecord.of(LocalDateTime.parse(hitDto.getTimestamp(), formatter),
+                hitDto.getApp(), hitDto.getUri(), hitDto.getIp());
+    }
+
+    private record UriKey(String app, String uri) {
+    }
+
+    private record BucketKey(String app, String uri, LocalDateTime bucket) {
+    }
+
+    private static final class Counter {
+        private long hits;
+        private final Set<String> ips;
+
+        private Counter(boolean unique) {
+            this.ips = unique ? new HashSet<>() : null;
+        }
+
+        private void add(String ip) {
+            hits++;
+            if (ips != null) {
+                ips.add(ip);
+            }
+        }
+
+        private long value() {
+            return ips == null ? hits : ips.size();
+        }
+    }
+}
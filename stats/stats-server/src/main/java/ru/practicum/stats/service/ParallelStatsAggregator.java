@@ -0,0 +1,152 @@
+package ru.practicum.stats.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.HitStatDto;
+import ru.practicum.stats.repository.DictionaryRepository.Dictionary;
+import ru.practicum.stats.repository.HitPartitionRepository;
+import ru.practicum.stats.repository.HitPartitionRepository.Partition;
+import ru.practicum.stats.repository.HitPartitionRepository.PartitionCount;
+import ru.practicum.stats.repository.HitPartitionRepository.TimeRange;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Параллельная агрегация GET /stats по длинным диапазонам. Без уникальности выборка делится на интервалы
+ * из целых суток, с уникальностью - на непересекающиеся диапазоны uri_id: одни и те же ip встречаются в разных
+ * интервалах, и уникальные количества по времени сложить нельзя, а пара (приложение, uri) целиком лежит
+ * в одном диапазоне. Каждая строка читается одной частью, как и при делении по времени; части с популярными uri
+ * тяжелее остальных, поэтому их вдвое больше, чем потоков.
+ * Части считаются на ограниченном ForkJoinPool, каждая отдельным запросом на своём соединении.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "stats.storage.engine", havingValue = "jpa", matchIfMissing = true)
+public class ParallelStatsAggregator {
+
+    private static final int PARTITIONS_PER_THREAD = 2;
+
+    private final HitPartitionRepository hitPartitionRepository;
+    private final HitDictionary hitDictionary;
+    private final int parallelism;
+    private final Duration minRange;
+    private final int maxUris;
+    private final ForkJoinPool pool;
+
+    public ParallelStatsAggregator(HitPartitionRepository hitPartitionRepository,
+                                   HitDictionary hitDictionary,
+                                   @Value("${stats.parallel.parallelism:4}") int parallelism,
+                                   @Value("${stats.parallel.min-range:30d}") Duration minRange,
+                                   @Value("${stats.parallel.max-uris:100}") int maxUris) {
+        this.hitPartitionRepository = hitPartitionRepository;
+        this.hitDictionary = hitDictionary;
+        this.parallelism = parallelism;
+        this.minRange = minRange;
+        this.maxUris = maxUris;
+        this.pool = new ForkJoinPool(Math.max(parallelism, 1));
+    }
+
+    /**
+     * Агрегаты, отсортированные по убыванию хитов, или пустой Optional, если диапазон короче min-range
+     * или uri не больше max-uris и запрос выгоднее выполнить целиком.
+     *
+     * @param uriIds идентификаторы uri для фильтра или null, если фильтра нет
+     */
+    public Optional<List<HitStatDto>> aggregate(StatsQuery query, Collection<Integer> uriIds) {
+        if (parallelism <= 1 || query.hasRange() && isShort(query.start(), query.end())
+                || uriIds != null && uriIds.size() <= maxUris) {
+            return Optional.empty();
+        }
+        // Границы сужаются до реально записанных хитов: запрос за 100 лет не должен делиться на пустые интервалы
+        Optional<TimeRange> found = hitPartitionRepository.findTimeRange(query, uriIds);
+        if (found.isEmpty()) {
+            return Optional.of(List.of());
+        }
+        LocalDateTime from = found.get().min().truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime to = found.get().max().plusSeconds(1);
+        if (isShort(from, to)) {
+            return Optional.empty();
+        }
+
+        List<Partition> partitions = query.unique() ? uriPartitions(from, to) : timePartitions(from, to);
+        List<CompletableFuture<List<PartitionCount>>> futures = partitions.stream()
+                .map(partition -> CompletableFuture.supplyAsync(() -> {
+                    List<PartitionCount> counts = new ArrayList<>();
+                    hitPartitionRepository.count(query, uriIds, partition, counts::add);
+                    return counts;
+                }, pool))
+                .toList();
+
+        Map<Long, Long> totals = new HashMap<>();
+        try {
+            for (CompletableFuture<List<PartitionCount>> future : futures) {
+                for (PartitionCount count : future.join()) {
+                    totals.merge((long) count.appId() << Integer.SIZE | Integer.toUnsignedLong(count.uriId()),
+                            count.hits(), Long::sum);
+                }
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        log.debug("Aggregated stats from {} to {} in {} partitions", from, to, partitions.size());
+
+        return Optional.of(totals.entrySet().stream()
+                .map(entry -> new HitStatDto(
+                        hitDictionary.value(Dictionary.APPS, (int) (entry.getKey() >>> Integer.SIZE)),
+                        hitDictionary.value(Dictionary.URIS, entry.getKey().intValue()),
+                        entry.getValue().intValue()))
+                .sorted(StatsServiceImpl.BY_HITS)
+                .toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private boolean isShort(LocalDateTime from, LocalDateTime to) {
+        return Duration.between(from, to).compareTo(minRange) < 0;
+    }
+
+    private List<Partition> timePartitions(LocalDateTime from, LocalDateTime to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        int count = parallelism * PARTITIONS_PER_THREAD;
+        long step = Math.max(1, (days + count - 1) / count);
+        List<Partition> partitions = new ArrayList<>();
+        for (LocalDateTime sliceStart = from; sliceStart.isBefore(to); sliceStart = sliceStart.plusDays(step)) {
+            partitions.add(Partition.ofTime(sliceStart, sliceStart.plusDays(step)));
+        }
+        return partitions;
+    }
+
+    private List<Partition> uriPartitions(LocalDateTime from, LocalDateTime to) {
+        int maxUriId = hitPartitionRepository.findMaxUriId();
+        int count = parallelism * PARTITIONS_PER_THREAD;
+        int step = Math.max(1, (maxUriId + count - 1) / count);
+        List<Partition> partitions = new ArrayList<>(count);
+        for (long minUriId = 1; minUriId <= maxUriId; minUriId += step) {
+            // Последняя часть открыта сверху: uri, добавленные после чтения maxUriId, тоже будут учтены
+            int lastUriId = minUriId + step > maxUriId ? Integer.MAX_VALUE : (int) (minUriId + step - 1);
+            partitions.add(new Partition(from, to, (int) minUriId, lastUriId));
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.stats.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static ru.practicum.stats.utils.Constants.formatter;
+
+/**
+ * Параметры запроса статистики, проверенные до начала выдачи ответа.
+ * Пустые start и end означают выборку без ограничения по времени, как и в GET /stats.
+ */
+public record StatsQuery(LocalDateTime start,
+                         LocalDateTime end,
+                         List<String> uris,
+                         boolean unique,
+                         Integer limit,
+                         StatsOrder orderBy) {
+
+    public static StatsQuery of(String start, String end, List<String> uris, Boolean unique,
+                                Integer limit, String orderBy) {
+        LocalDateTime startTime = null;
+        LocalDateTime endTime = null;
+        if (start != null && !start.isBlank() && end != null && !end.isBlank()) {
+            try {
+                startTime = LocalDateTime.parse(start, formatter);
+                endTime = LocalDateTime.parse(end, formatter);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid date format: " + e.getMessage(), e);
+            }
+            if (!startTime.isBefore(endTime)) {
+                throw new IllegalArgumentException("Start date must be before end date");
+            }
+        }
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return new StatsQuery(startTime, endTime, uris == null || uris.isEmpty() ? null : uris,
+                Boolean.TRUE.equals(unique), limit, StatsOrder.from(orderBy));
+    }
+
+    public boolean hasRange() {
+        return start != null;
+    }
+}
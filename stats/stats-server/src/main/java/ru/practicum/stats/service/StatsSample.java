@@ -0,0 +1,71 @@
+package ru.practicum.stats.service;
+
+import ru.practicum.HitStatDto;
+import ru.practicum.stats.archive.IpHash;
+
+import java.util.Locale;
+
+/**
+ * Детерминированная выборка для приближённого GET /stats. Хит попадает в выборку, если хэш по модулю BUCKETS
+ * меньше threshold, поэтому повторный запрос видит ту же выборку.
+ * Без уникальности выбираются хиты, с уникальностью - ip целиком: тогда число различных ip в выборке
+ * пропорционально их полному числу, а доля хитов одного ip ничего не искажает.
+ * Интервал - нормальное приближение биномиального распределения с уровнем 95%.
+ */
+public record StatsSample(int threshold) {
+
+    public static final int BUCKETS = 10_000;
+    private static final double Z_95 = 1.96;
+
+    public static StatsSample of(double sample) {
+        if (!(sample > 0 && sample <= 1)) {
+            throw new IllegalArgumentException("sample must be greater than 0 and not greater than 1");
+        }
+        return new StatsSample((int) Math.max(1, Math.round(sample * BUCKETS)));
+    }
+
+    public double fraction() {
+        return (double) threshold / BUCKETS;
+    }
+
+    /**
+     * Доля в процентах для TABLESAMPLE; литерал, а не параметр, так как значение уже проверено.
+     */
+    public String percent() {
+        return String.format(Locale.ROOT, "%.2f", fraction() * 100);
+    }
+
+    /**
+     * Тот же отбор ip, что и SQL-выражение md5 в репозитории: первые 4 байта MD5 как int без знака.
+     */
+    public boolean includesIp(String ip) {
+        return includesIpHash(IpHash.of(ip));
+    }
+
+    public boolean includesIpHash(long ipHash) {
+        return ((int) (ipHash >>> Integer.SIZE) & Integer.MAX_VALUE) % BUCKETS < threshold;
+    }
+
+    public boolean includesId(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return Long.remainderUnsigned(hash ^ (hash >>> 32), BUCKETS) < threshold;
+    }
+
+    /**
+     * Оценка полного числа хитов: exact - посчитанные без выборки, sampled - найденные в выборке.
+     * Нижняя граница не меньше уже найденного; при пустой выборке интервал считается как для одного хита.
+     */
+    public HitStatDto estimate(String app, String uri, long sampled, long exact) {
+        double fraction = fraction();
+        double estimate = exact + sampled / fraction;
+        double margin = Z_95 * Math.sqrt(Math.max(sampled, 1) * (1 - fraction)) / fraction;
+        return new HitStatDto(app, uri,
+                toInt(Math.round(estimate)),
+                toInt(Math.max(exact + sampled, Math.round(estimate - margin))),
+                toInt(Math.round(estimate + margin)));
+    }
+
+    private static int toInt(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+}
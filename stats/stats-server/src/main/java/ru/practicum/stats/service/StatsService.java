@@ -1,12 +1,39 @@
 package ru.practicum.stats.service;
 
+import ru.practicum.HitBucketDto;
+import ru.practicum.HitChangesDto;
 import ru.practicum.HitDto;
 import ru.practicum.HitStatDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StatsService {
     HitDto saveHit(HitDto hitDto);
 
     List<HitStatDto> getHits(String start, String end, List<String> uris, Boolean unique);
+
+    /**
+     * Приближённая статистика по детерминированной выборке доли sample: hits - оценка,
+     * hitsLow и hitsHigh - границы доверительного интервала.
+     */
+    List<HitStatDto> getSampledHits(String start, String end, List<String> uris, Boolean unique, double sample);
+
+    HitChangesDto getChanges(long afterId, int limit, String uriPrefix);
+
+    /**
+     * Проверяет, что потоковая выдача сможет ответить на запрос целиком; вызывается до начала потока.
+     */
+    default void checkStreamable(StatsQuery query) {
+    }
+
+    /**
+     * Агрегирует статистику в базе и отдаёт строки по одной, не собирая результат в памяти.
+     */
+    void streamHits(StatsQuery query, Consumer<HitStatDto> consumer);
+
+    /**
+     * Число просмотров по корзинам времени для каждого uri; уникальные считаются только при unique=true.
+     */
+    List<HitBucketDto> getHistogram(String start, String end, List<String> uris, String interval, Boolean unique);
 }
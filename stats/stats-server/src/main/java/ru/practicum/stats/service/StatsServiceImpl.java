@@ -2,19 +2,31 @@ package ru.practicum.stats.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.HitBucketDto;
+import ru.practicum.HitChangesDto;
 import ru.practicum.HitDto;
 import ru.practicum.HitStatDto;
+import ru.practicum.stats.archive.ArchiveCounter;
+import ru.practicum.stats.archive.HitArchive;
+import ru.practicum.stats.archive.HitKey;
 import ru.practicum.stats.entity.Hit;
+import ru.practicum.stats.repository.DictionaryRepository.Dictionary;
+import ru.practicum.stats.repository.HitHistogramRepository;
+import ru.practicum.stats.repository.HitStatsStreamRepository;
 import ru.practicum.stats.repository.StatsRepository;
+import ru.practicum.stats.repository.UriVisitorRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 import static ru.practicum.stats.mapper.HitDtoMapper.dtoToHit;
 import static ru.practicum.stats.mapper.HitDtoMapper.toHitDto;
@@ -23,68 +35,220 @@ import static ru.practicum.stats.utils.Constants.formatter;
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "stats.storage.engine", havingValue = "jpa", matchIfMissing = true)
 public class StatsServiceImpl implements StatsService {
 
+    static final Comparator<HitStatDto> BY_HITS = Comparator.comparing(HitStatDto::getHits).reversed()
+            .thenComparing(HitStatDto::getApp)
+            .thenComparing(HitStatDto::getUri);
+
     private final StatsRepository statsRepository;
+    private final HitStatsStreamRepository hitStatsStreamRepository;
+    private final HitHistogramRepository hitHistogramRepository;
+    private final HitDictionary hitDictionary;
+    private final HitArchive hitArchive;
+    private final ParallelStatsAggregator parallelStatsAggregator;
+    private final UriVisitorRepository uriVisitorRepository;
+    private final TransactionTemplate transactionTemplate;
 
+    // Словарные строки добавляются до транзакции записи хита, чтобы не держать второе соединение
     @Override
-    @Transactional
     public HitDto saveHit(HitDto hitDto) {
         log.info("Saving hit: {}", hitDto);
-        Hit savedHit = statsRepository.save(dtoToHit(hitDto));
+        int appId = hitDictionary.id(Dictionary.APPS, hitDto.getApp());
+        int uriId = hitDictionary.id(Dictionary.URIS, hitDto.getUri());
+        Hit savedHit = transactionTemplate.execute(status -> {
+            Hit hit = statsRepository.save(dtoToHit(hitDto, appId, uriId));
+            uriVisitorRepository.insertIfAbsent(List.of(hit));
+            return hit;
+        });
         log.debug("Successfully saved hit: {}", savedHit);
-        return toHitDto(savedHit);
+        return toHitDto(savedHit, hitDto.getApp(), hitDto.getUri());
     }
 
+    // Без транзакции: поток запроса не держит соединение, пока части длинного диапазона считаются параллельно
     @Override
     public List<HitStatDto> getHits(String start, String end, List<String> uris, Boolean unique) {
         log.info("Retrieving stats: start={}, end={}, uris={}, unique={}", start, end, uris, unique);
-
-        List<Hit> data;
-        if (start == null || start.isBlank() || end == null || end.isBlank()) {
+        StatsQuery query = StatsQuery.of(start, end, uris, unique, null, null);
+        if (!query.hasRange()) {
             log.warn("Start or end date is blank, fetching all data for uris: {}", uris);
-            data = uris == null || uris.isEmpty() ? statsRepository.findAll() : statsRepository.findAllByUriIn(uris);
-        } else {
-            try {
-                LocalDateTime startTime = LocalDateTime.parse(start, formatter);
-                LocalDateTime endTime = LocalDateTime.parse(end, formatter);
-
-                if (!startTime.isBefore(endTime)) {
-                    log.error("Invalid date range: start={} is not before end={}", start, end);
-                    throw new IllegalArgumentException("Start date must be before end date");
-                }
-
-                data = (uris == null || uris.isEmpty())
-                        ? statsRepository.getStat(startTime, endTime)
-                        : statsRepository.getStatByUris(startTime, endTime, uris);
-                log.debug("Fetched {} hits from repository", data.size());
-            } catch (Exception e) {
-                log.error("Failed to parse dates or fetch stats: {}", e.getMessage(), e);
-                throw new IllegalArgumentException("Invalid date format or retrieval error: " + e.getMessage(), e);
-            }
         }
 
-        Map<String, Map<String, List<Hit>>> groupedHits = data.stream()
-                .collect(Collectors.groupingBy(
-                        Hit::getApp,
-                        Collectors.groupingBy(Hit::getUri)
-                ));
-
-        List<HitStatDto> result = new ArrayList<>();
-        groupedHits.forEach((app, uriMap) -> uriMap.forEach((uri, hits) -> {
-            HitStatDto stat = new HitStatDto();
-            stat.setApp(app);
-            stat.setUri(uri);
-            List<String> ips = hits.stream().map(Hit::getIp).toList();
-            int hitCount = unique ? (int) ips.stream().distinct().count() : ips.size();
-            stat.setHits(hitCount);
-            result.add(stat);
-        }));
-
-        List<HitStatDto> sortedResult = result.stream()
-                .sorted(Comparator.comparingInt(HitStatDto::getHits).reversed())
+        List<HitStatDto> result = hitArchive.read(() -> aggregateWithArchive(query));
+        log.debug("Returning {} sorted stats", result.size());
+        return result;
+    }
+
+    @Override
+    public List<HitStatDto> getSampledHits(String start, String end, List<String> uris, Boolean unique,
+                                           double sample) {
+        log.info("Retrieving sampled stats: start={}, end={}, uris={}, unique={}, sample={}",
+                start, end, uris, unique, sample);
+        StatsQuery query = StatsQuery.of(start, end, uris, unique, null, null);
+        StatsSample statsSample = StatsSample.of(sample);
+        List<HitStatDto> result = hitArchive.read(() -> aggregateSample(query, statsSample));
+        log.debug("Returning {} sampled stats", result.size());
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public HitChangesDto getChanges(long afterId, int limit, String uriPrefix) {
+        log.info("Retrieving hit changes: afterId={}, limit={}, uriPrefix={}", afterId, limit, uriPrefix);
+        if (afterId < 0 || limit <= 0) {
+            throw new IllegalArgumentException("afterId must not be negative and limit must be positive");
+        }
+
+        // Курсор - seq первых посещений, а не id хитов: id из пула выдаются не в порядке фиксации транзакций
+        long lastId = Math.max(uriVisitorRepository.findSettledSeq(), afterId);
+        long toId = Math.min(lastId, afterId + limit);
+
+        List<HitStatDto> stats = toId == afterId
+                ? List.of()
+                : uriVisitorRepository.findDelta(afterId, toId, (uriPrefix == null ? "" : uriPrefix) + "%");
+        log.debug("Returning {} changed uris up to visitor seq {}", stats.size(), toId);
+        return new HitChangesDto(afterId, toId, stats, toId < lastId);
+    }
+
+    @Override
+    public void checkStreamable(StatsQuery query) {
+        checkNotArchived(query);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamHits(StatsQuery query, Consumer<HitStatDto> consumer) {
+        log.info("Streaming stats: {}", query);
+        checkNotArchived(query);
+        aggregate(query, consumer);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<HitBucketDto> getHistogram(String start, String end, List<String> uris, String interval,
+                                           Boolean unique) {
+        log.info("Retrieving histogram: start={}, end={}, uris={}, interval={}, unique={}",
+                start, end, uris, interval, unique);
+        StatsQuery query = StatsQuery.of(start, end, uris, unique, null, null);
+        HistogramInterval bucketInterval = HistogramInterval.from(interval);
+        bucketInterval.checkRange(query.start(), query.end());
+        checkNotArchived(query);
+
+        List<Integer> uriIds = findUriIds(query);
+        List<HitBucketDto> histogram = uriIds != null && uriIds.isEmpty()
+                ? List.of()
+                : hitHistogramRepository.getHistogram(query.start(), query.end(), uriIds, bucketInterval, query.unique());
+        log.debug("Returning {} histogram buckets", histogram.size());
+        return histogram;
+    }
+
+    // Поток и гистограмма читают только базу: диапазон, задевающий архив, дал бы заниженные числа без ошибки.
+    // Счётчики архива не делятся по времени внутри пары и не сортируются вместе с потоком, поэтому такой запрос
+    // отклоняется; полные числа за старые периоды отдаёт GET /stats
+    private void checkNotArchived(StatsQuery query) {
+        LocalDateTime archivedUntil = hitArchive.archivedUntil();
+        if (archivedUntil != null && (!query.hasRange() || query.start().isBefore(archivedUntil))) {
+            throw new IllegalArgumentException("Range must start not earlier than "
+                    + archivedUntil.format(formatter) + ": older hits are archived, use /stats for them");
+        }
+    }
+
+    private void aggregate(StatsQuery query, Consumer<HitStatDto> consumer) {
+        List<Integer> uriIds = findUriIds(query);
+        if (uriIds != null && uriIds.isEmpty()) {
+            return;
+        }
+        hitStatsStreamRepository.aggregate(query, uriIds, consumer);
+    }
+
+    // Хиты старше срока хранения лежат в архиве: его счётчики складываются с базой,
+    // а для уникальных просмотров ip тех же пар из базы ищутся среди хэшей ip архива
+    private List<HitStatDto> aggregateWithArchive(StatsQuery query) {
+        List<HitStatDto> hot = aggregateHot(query);
+        Map<HitKey, ArchiveCounter> archived = hitArchive.isEmpty()
+                ? Map.of()
+                : hitArchive.aggregate(query.start(), query.end(), query.uris(), query.unique());
+        if (archived.isEmpty()) {
+            return hot;
+        }
+
+        if (query.unique()) {
+            addHotIps(query, null, archived);
+        }
+        Map<HitKey, Long> totals = new HashMap<>();
+        hot.forEach(stat -> totals.put(new HitKey(stat.getApp(), stat.getUri()), (long) stat.getHits()));
+        archived.forEach((key, counter) -> totals.merge(key, counter.value(),
+                query.unique() ? (hotHits, combined) -> combined : Long::sum));
+        return totals.entrySet().stream()
+                .map(entry -> new HitStatDto(entry.getKey().app(), entry.getKey().uri(), entry.getValue().intValue()))
+                .sorted(BY_HITS)
                 .toList();
-        log.debug("Returning {} sorted stats", sortedResult.size());
-        return sortedResult;
     }
-}
\ No newline at end of file
+
+    // Без уникальности архив добавляется точно: счётчики пар берутся из заголовков сегментов почти даром.
+    // С уникальностью ip из архива отбираются той же выборкой и объединяются с выборочными ip базы
+    private List<HitStatDto> aggregateSample(StatsQuery query, StatsSample sample) {
+        Map<HitKey, Long> sampled = new HashMap<>();
+        Map<HitKey, Long> exact = new HashMap<>();
+        List<Integer> uriIds = findUriIds(query);
+        if (uriIds == null || !uriIds.isEmpty()) {
+            hitStatsStreamRepository.aggregate(query, uriIds, sample, stat ->
+                    sampled.put(new HitKey(stat.getApp(), stat.getUri()), (long) stat.getHits()));
+        }
+
+        Map<HitKey, ArchiveCounter> archived = hitArchive.isEmpty()
+                ? Map.of()
+                : hitArchive.aggregate(query.start(), query.end(), query.uris(), query.unique());
+        if (!query.unique()) {
+            archived.forEach((key, counter) -> exact.put(key, counter.value()));
+        } else if (!archived.isEmpty()) {
+            archived.values().forEach(counter -> counter.retainIps(sample::includesIpHash));
+            addHotIps(query, sample, archived);
+            archived.forEach((key, counter) -> sampled.put(key, counter.value()));
+        }
+
+        Map<HitKey, HitStatDto> estimates = new HashMap<>();
+        sampled.forEach((key, count) -> estimates.put(key,
+                sample.estimate(key.app(), key.uri(), count, exact.getOrDefault(key, 0L))));
+        exact.forEach((key, count) -> estimates.computeIfAbsent(key,
+                missing -> sample.estimate(key.app(), key.uri(), 0, count)));
+        return estimates.values().stream()
+                .filter(stat -> stat.getHits() > 0)
+                .sorted(BY_HITS)
+                .toList();
+    }
+
+    // ip из базы не накапливаются в памяти: курсор читает их порциями, поэтому нужна транзакция
+    private void addHotIps(StatsQuery query, StatsSample sample, Map<HitKey, ArchiveCounter> archived) {
+        List<Integer> uriIds = hitDictionary.existingIds(Dictionary.URIS,
+                archived.keySet().stream().map(HitKey::uri).distinct().toList());
+        if (uriIds.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                hitStatsStreamRepository.distinctIps(query, uriIds, sample, (key, ip) -> {
+                    ArchiveCounter counter = archived.get(key);
+                    if (counter != null) {
+                        counter.addIp(ip);
+                    }
+                }));
+    }
+
+    private List<HitStatDto> aggregateHot(StatsQuery query) {
+        List<Integer> uriIds = findUriIds(query);
+        if (uriIds != null && uriIds.isEmpty()) {
+            return List.of();
+        }
+        return parallelStatsAggregator.aggregate(query, uriIds).orElseGet(() -> {
+            List<HitStatDto> result = new ArrayList<>();
+            hitStatsStreamRepository.aggregate(query, uriIds, result::add);
+            return result;
+        });
+    }
+
+    // null означает отсутствие фильтра, пустой список - что ни один из запрошенных uri не встречался
+    private List<Integer> findUriIds(StatsQuery query) {
+        return query.uris() == null ? null : hitDictionary.existingIds(Dictionary.URIS, query.uris());
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.stats.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Сегмент, в который идёт запись. Пишет только HitLog под своей блокировкой,
+ * читатели отображают в память уже записанную часть файла через собственный канал.
+ */
+final class ActiveSegment implements Segment {
+
+    private final Path path;
+    private final long baseId;
+    private final FileChannel channel;
+    // Статистика обновляется до size: читатель, увидевший новый размер, увидит и её
+    private volatile long minEpochSecond = Long.MAX_VALUE;
+    private volatile long maxEpochSecond = Long.MIN_VALUE;
+    private volatile long lastId;
+    private volatile long size;
+
+    private ActiveSegment(Path path, long baseId, FileChannel channel) {
+        this.path = path;
+        this.baseId = baseId;
+        this.channel = channel;
+        this.lastId = baseId - 1;
+    }
+
+    static ActiveSegment open(Path path, long baseId) throws IOException {
+        ActiveSegment segment = new ActiveSegment(path, baseId, FileChannel.open(path, CREATE, READ, WRITE));
+        segment.recover();
+        return segment;
+    }
+
+    @Override
+    public long firstId() {
+        return baseId;
+    }
+
+    @Override
+    public long lastId() {
+        return lastId;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    long size() {
+        return size;
+    }
+
+    void append(List<HitRecord> records, boolean fsync) throws IOException {
+        ByteBuffer[] buffers = records.stream().map(HitRecord::encode).toArray(ByteBuffer[]::new);
+        long total = 0;
+        for (ByteBuffer buffer : buffers) {
+            total += buffer.remaining();
+        }
+        try {
+            channel.position(size);
+            long written = 0;
+            while (written < total) {
+                written += channel.write(buffers);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            // Недописанный хвост отрезается, чтобы следующая запись не легла после мусора
+            channel.truncate(size);
+            throw e;
+        }
+        for (HitRecord record : records) {
+            track(record.id(), record.epochSecond());
+        }
+        size += total;
+    }
+
+    @Override
+    public void scan(ScanRange range, Collection<String> uris, Consumer<HitRecord> consumer) throws IOException {
+        long snapshotSize = size;
+        if (snapshotSize == 0 || !range.overlaps(minEpochSecond, maxEpochSecond, baseId, lastId)) {
+            return;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel reader = FileChannel.open(path, READ)) {
+            buffer = reader.map(FileChannel.MapMode.READ_ONLY, 0, snapshotSize);
+        }
+        Segment.scanRecords(buffer, (int) snapshotSize, range, uris, consumer);
+    }
+
+    /**
+     * Закрывает сегмент для записи и строит для него индекс.
+     */
+    SealedSegment seal() throws IOException {
+        channel.force(true);
+        channel.close();
+        return SealedSegment.open(path, baseId);
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    // После аварийной остановки в конце файла может остаться недописанная запись: она отбрасывается
+    private void recover() throws IOException {
+        long fileSize = channel.size();
+        if (fileSize == 0) {
+            return;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        int position = 0;
+        while (position + HitRecord.LENGTH_SIZE <= fileSize) {
+            int recordSize = HitRecord.sizeAt(buffer, position);
+            if (recordSize <= HitRecord.LENGTH_SIZE || position + recordSize > fileSize) {
+                break;
+            }
+            track(HitRecord.idAt(buffer, position), HitRecord.epochSecondAt(buffer, position));
+            position += recordSize;
+        }
+        if (position < fileSize) {
+            channel.truncate(position);
+        }
+        size = position;
+    }
+
+    private void track(long id, long epochSecond) {
+        lastId = Math.max(lastId, id);
+        minEpochSecond = Math.min(minEpochSecond, epochSecond);
+        maxEpochSecond = Math.max(maxEpochSecond, epochSecond);
+    }
+}
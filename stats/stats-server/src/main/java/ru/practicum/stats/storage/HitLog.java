@@ -0,0 +1,132 @@
+package ru.practicum.stats.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Журнал хитов из сегментных файлов в одном каталоге. Записи только дописываются в активный сегмент;
+ * заполненный сегмент закрывается, для него строится индекс, и запись продолжается в новый.
+ * Имя сегмента - id его первой записи, поэтому порядок файлов совпадает с порядком id.
+ */
+@Slf4j
+public class HitLog implements Closeable {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    // Смещения внутри сегмента - int, поэтому сегмент не может быть больше 1 ГБ
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean fsync;
+    // Снимок для читателей, последний элемент - активный сегмент
+    private volatile List<Segment> segments;
+    private volatile long lastId;
+    private ActiveSegment active;
+
+    public HitLog(Path directory, long segmentSize, boolean fsync) throws IOException {
+        if (segmentSize <= 0 || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Segment size must be between 1 and " + MAX_SEGMENT_SIZE);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        List<Segment> loaded = new ArrayList<>();
+        for (int i = 0; i < files.size() - 1; i++) {
+            loaded.add(SealedSegment.open(files.get(i), baseIdOf(files.get(i))));
+        }
+        active = files.isEmpty()
+                ? ActiveSegment.open(segmentPath(1), 1)
+                : ActiveSegment.open(files.get(files.size() - 1), baseIdOf(files.get(files.size() - 1)));
+        loaded.add(active);
+        segments = List.copyOf(loaded);
+        lastId = loaded.stream().mapToLong(Segment::lastId).max().orElse(0);
+        log.info("Opened hit log in {}: {} segments, last id {}", directory, loaded.size(), lastId);
+    }
+
+    /**
+     * Дописывает записи, присваивая им очередные id.
+     *
+     * @return записи с присвоенными id
+     */
+    public synchronized List<HitRecord> append(List<HitRecord> records) {
+        List<HitRecord> stored = new ArrayList<>(records.size());
+        long id = lastId;
+        for (HitRecord record : records) {
+            stored.add(record.withId(++id));
+        }
+        try {
+            active.append(stored, fsync);
+            lastId = id;
+            if (active.size() >= segmentSize) {
+                roll();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to hit log", e);
+        }
+        return stored;
+    }
+
+    public long lastId() {
+        return lastId;
+    }
+
+    /**
+     * Просматривает сегменты, пересекающиеся с диапазоном, в порядке id.
+     *
+     * @param uris uri для отбора или null; для закрытых сегментов отбор идёт по индексу
+     */
+    public void scan(ScanRange range, Collection<String> uris, Consumer<HitRecord> consumer) {
+        Set<String> uriSet = uris == null ? null : Set.copyOf(uris);
+        try {
+            for (Segment segment : segments) {
+                segment.scan(range, uriSet, consumer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read hit log", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        active.close();
+    }
+
+    private void roll() throws IOException {
+        SealedSegment sealed = active.seal();
+        ActiveSegment next = ActiveSegment.open(segmentPath(lastId + 1), lastId + 1);
+        List<Segment> updated = new ArrayList<>(segments);
+        updated.set(updated.size() - 1, sealed);
+        updated.add(next);
+        active = next;
+        segments = List.copyOf(updated);
+        log.debug("Sealed hit log segment {}-{}", sealed.firstId(), sealed.lastId());
+    }
+
+    private Path segmentPath(long baseId) {
+        return directory.resolve(String.format("%020d%s", baseId, SEGMENT_SUFFIX));
+    }
+
+    private static long baseIdOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
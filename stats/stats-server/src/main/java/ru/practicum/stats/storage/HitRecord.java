@@ -0,0 +1,101 @@
+package ru.practicum.stats.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Запись хита в сегменте журнала.
+ * Формат: int длина тела, long id, long время в секундах, затем app, uri и ip как unsigned short длина + UTF-8.
+ * Время хранится без часового пояса: LocalDateTime переводится в секунды как UTC только для кодирования.
+ */
+public record HitRecord(long id, long epochSecond, String app, String uri, String ip) {
+
+    static final int LENGTH_SIZE = Integer.BYTES;
+    private static final int ID_OFFSET = LENGTH_SIZE;
+    private static final int TIME_OFFSET = ID_OFFSET + Long.BYTES;
+    private static final int STRINGS_OFFSET = TIME_OFFSET + Long.BYTES;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    public static HitRecord of(LocalDateTime timestamp, String app, String uri, String ip) {
+        return new HitRecord(0, toEpochSecond(timestamp), app, uri, ip);
+    }
+
+    public static long toEpochSecond(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    public LocalDateTime timestamp() {
+        return toLocalDateTime(epochSecond);
+    }
+
+    HitRecord withId(long newId) {
+        return new HitRecord(newId, epochSecond, app, uri, ip);
+    }
+
+    ByteBuffer encode() {
+        byte[] appBytes = bytes(app);
+        byte[] uriBytes = bytes(uri);
+        byte[] ipBytes = bytes(ip);
+        int bodySize = STRINGS_OFFSET - LENGTH_SIZE + 3 * Short.BYTES
+                + appBytes.length + uriBytes.length + ipBytes.length;
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_SIZE + bodySize);
+        buffer.putInt(bodySize).putLong(id).putLong(epochSecond);
+        putString(buffer, appBytes);
+        putString(buffer, uriBytes);
+        putString(buffer, ipBytes);
+        return buffer.flip();
+    }
+
+    static int sizeAt(ByteBuffer buffer, int position) {
+        return LENGTH_SIZE + buffer.getInt(position);
+    }
+
+    static long idAt(ByteBuffer buffer, int position) {
+        return buffer.getLong(position + ID_OFFSET);
+    }
+
+    static long epochSecondAt(ByteBuffer buffer, int position) {
+        return buffer.getLong(position + TIME_OFFSET);
+    }
+
+    static HitRecord readAt(ByteBuffer buffer, int position) {
+        int offset = position + STRINGS_OFFSET;
+        String app = getString(buffer, offset);
+        offset += Short.BYTES + Short.toUnsignedInt(buffer.getShort(offset));
+        String uri = getString(buffer, offset);
+        offset += Short.BYTES + Short.toUnsignedInt(buffer.getShort(offset));
+        String ip = getString(buffer, offset);
+        return new HitRecord(idAt(buffer, position), epochSecondAt(buffer, position), app, uri, ip);
+    }
+
+    static String uriAt(ByteBuffer buffer, int position) {
+        int offset = position + STRINGS_OFFSET;
+        offset += Short.BYTES + Short.toUnsignedInt(buffer.getShort(offset));
+        return getString(buffer, offset);
+    }
+
+    private static byte[] bytes(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Hit field is too long: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer, int offset) {
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        byte[] bytes = new byte[length];
+        buffer.get(offset + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
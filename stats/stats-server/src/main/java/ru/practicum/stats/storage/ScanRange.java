@@ -0,0 +1,29 @@
+package ru.practicum.stats.storage;
+
+/**
+ * Ограничения просмотра журнала: время в секундах [fromEpochSecond, toEpochSecond)
+ * и идентификаторы (afterId, toId].
+ */
+public record ScanRange(long fromEpochSecond, long toEpochSecond, long afterId, long toId) {
+
+    public static ScanRange all() {
+        return new ScanRange(Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public static ScanRange ofTime(long fromEpochSecond, long toEpochSecond) {
+        return new ScanRange(fromEpochSecond, toEpochSecond, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public static ScanRange ofIds(long afterId, long toId) {
+        return new ScanRange(Long.MIN_VALUE, Long.MAX_VALUE, afterId, toId);
+    }
+
+    boolean overlaps(long minEpochSecond, long maxEpochSecond, long firstId, long lastId) {
+        return minEpochSecond < toEpochSecond && maxEpochSecond >= fromEpochSecond
+                && lastId > afterId && firstId <= toId;
+    }
+
+    boolean matches(long epochSecond, long id) {
+        return epochSecond >= fromEpochSecond && epochSecond < toEpochSecond && id > afterId && id <= toId;
+    }
+}
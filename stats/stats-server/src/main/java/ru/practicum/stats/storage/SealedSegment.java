@@ -0,0 +1,184 @@
+package ru.practicum.stats.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Закрытый сегмент: файл записей и индекс рядом с ним, оба отображены в память только для чтения.
+ * Индекс хранит диапазоны id и времени сегмента и смещения записей по каждому uri,
+ * поэтому запрос по набору uri читает только их записи.
+ * Формат индекса: int magic, long firstId, long lastId, long minTime, long maxTime, int count, int uriCount,
+ * затем для каждого uri: unsigned short длина + UTF-8, int число смещений, int смещения.
+ */
+final class SealedSegment implements Segment {
+
+    private static final int INDEX_MAGIC = 0x48495831;
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final MappedByteBuffer data;
+    private final int dataSize;
+    private final MappedByteBuffer index;
+    private final Map<String, UriOffsets> uriOffsets;
+    private final long firstId;
+    private final long lastId;
+    private final long minEpochSecond;
+    private final long maxEpochSecond;
+
+    private SealedSegment(MappedByteBuffer data, MappedByteBuffer index) throws IOException {
+        this.data = data;
+        this.dataSize = data.capacity();
+        this.index = index;
+        if (index.capacity() < 44 || index.getInt(0) != INDEX_MAGIC) {
+            throw new IOException("Invalid segment index");
+        }
+        this.firstId = index.getLong(4);
+        this.lastId = index.getLong(12);
+        this.minEpochSecond = index.getLong(20);
+        this.maxEpochSecond = index.getLong(28);
+        int uriCount = index.getInt(40);
+
+        Map<String, UriOffsets> offsets = new HashMap<>(uriCount * 2);
+        int position = 44;
+        for (int i = 0; i < uriCount; i++) {
+            int length = Short.toUnsignedInt(index.getShort(position));
+            byte[] uri = new byte[length];
+            index.get(position + Short.BYTES, uri);
+            position += Short.BYTES + length;
+            int count = index.getInt(position);
+            offsets.put(new String(uri, StandardCharsets.UTF_8), new UriOffsets(position + Integer.BYTES, count));
+            position += Integer.BYTES + count * Integer.BYTES;
+        }
+        this.uriOffsets = offsets;
+    }
+
+    static SealedSegment open(Path logPath, long baseId) throws IOException {
+        MappedByteBuffer data = map(logPath);
+        Path indexPath = logPath.resolveSibling(logPath.getFileName() + INDEX_SUFFIX);
+        if (Files.exists(indexPath)) {
+            try {
+                return new SealedSegment(data, map(indexPath));
+            } catch (IOException e) {
+                // Повреждённый индекс строится заново из файла записей
+                Files.delete(indexPath);
+            }
+        }
+        writeIndex(indexPath, data, baseId);
+        return new SealedSegment(data, map(indexPath));
+    }
+
+    @Override
+    public long firstId() {
+        return firstId;
+    }
+
+    @Override
+    public long lastId() {
+        return lastId;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return dataSize == 0;
+    }
+
+    @Override
+    public void scan(ScanRange range, Collection<String> uris, Consumer<HitRecord> consumer) {
+        if (isEmpty() || !range.overlaps(minEpochSecond, maxEpochSecond, firstId, lastId)) {
+            return;
+        }
+        if (uris == null) {
+            Segment.scanRecords(data, dataSize, range, null, consumer);
+            return;
+        }
+        for (String uri : uris) {
+            UriOffsets offsets = uriOffsets.get(uri);
+            if (offsets == null) {
+                continue;
+            }
+            for (int i = 0; i < offsets.count(); i++) {
+                int position = index.getInt(offsets.position() + i * Integer.BYTES);
+                if (range.matches(HitRecord.epochSecondAt(data, position), HitRecord.idAt(data, position))) {
+                    consumer.accept(HitRecord.readAt(data, position));
+                }
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // Индекс пишется во временный файл и переименовывается, чтобы после сбоя не остался недописанный
+    private static void writeIndex(Path indexPath, ByteBuffer data, long baseId) throws IOException {
+        Map<String, IntList> offsets = new LinkedHashMap<>();
+        long lastId = baseId - 1;
+        long minEpochSecond = Long.MAX_VALUE;
+        long maxEpochSecond = Long.MIN_VALUE;
+        int count = 0;
+        int position = 0;
+        while (position < data.capacity()) {
+            offsets.computeIfAbsent(HitRecord.uriAt(data, position), uri -> new IntList()).add(position);
+            long epochSecond = HitRecord.epochSecondAt(data, position);
+            lastId = Math.max(lastId, HitRecord.idAt(data, position));
+            minEpochSecond = Math.min(minEpochSecond, epochSecond);
+            maxEpochSecond = Math.max(maxEpochSecond, epochSecond);
+            count++;
+            position += HitRecord.sizeAt(data, position);
+        }
+
+        Path tempPath = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeLong(baseId);
+            out.writeLong(lastId);
+            out.writeLong(minEpochSecond);
+            out.writeLong(maxEpochSecond);
+            out.writeInt(count);
+            out.writeInt(offsets.size());
+            for (Map.Entry<String, IntList> entry : offsets.entrySet()) {
+                byte[] uri = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(uri.length);
+                out.write(uri);
+                IntList positions = entry.getValue();
+                out.writeInt(positions.size);
+                for (int i = 0; i < positions.size; i++) {
+                    out.writeInt(positions.values[i]);
+                }
+            }
+        }
+        Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private record UriOffsets(int position, int count) {
+    }
+
+    private static class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.stats.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+interface Segment {
+
+    long firstId();
+
+    long lastId();
+
+    boolean isEmpty();
+
+    /**
+     * Передаёт обработчику записи сегмента, попадающие в диапазон.
+     *
+     * @param uris uri для отбора или null, если отбирать по uri не нужно
+     */
+    void scan(ScanRange range, Collection<String> uris, Consumer<HitRecord> consumer) throws IOException;
+
+    /**
+     * Последовательный просмотр записей буфера до limit. Время и id проверяются до разбора строк записи.
+     */
+    static void scanRecords(ByteBuffer buffer, int limit, ScanRange range, Collection<String> uris,
+                            Consumer<HitRecord> consumer) {
+        int position = 0;
+        while (position < limit) {
+            if (range.matches(HitRecord.epochSecondAt(buffer, position), HitRecord.idAt(buffer, position))
+                    && (uris == null || uris.contains(HitRecord.uriAt(buffer, position)))) {
+                consumer.accept(HitRecord.readAt(buffer, position));
+            }
+            position += HitRecord.sizeAt(buffer, position);
+        }
+    }
+}
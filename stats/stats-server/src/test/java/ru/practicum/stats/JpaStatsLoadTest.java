@@ -0,0 +1,12 @@
+package ru.practicum.stats;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "stats.storage.engine=jpa")
+class JpaStatsLoadTest extends StatsLoadTestBase {
+
+    @Override
+    protected String variant() {
+        return "jpa";
+    }
+}
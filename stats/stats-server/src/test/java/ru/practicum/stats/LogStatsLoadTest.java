@@ -0,0 +1,19 @@
+package ru.practicum.stats;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Та же нагрузка на журнал хитов: строки с variant=log сравниваются со строками jpa.
+ * Каталог журнала свой у каждого запуска, иначе чтение учитывало бы хиты прошлых прогонов.
+ */
+@TestPropertySource(properties = {
+        "stats.storage.engine=log",
+        "stats.log.directory=target/benchmark-hits-log/${random.uuid}"
+})
+class LogStatsLoadTest extends StatsLoadTestBase {
+
+    @Override
+    protected String variant() {
+        return "log";
+    }
+}
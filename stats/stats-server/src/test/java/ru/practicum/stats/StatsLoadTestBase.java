@@ -0,0 +1,209 @@
+package ru.practicum.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.stats.utils.Constants.formatter;
+
+/**
+ * Бенчмарк stats-server через HTTP на PostgreSQL в Testcontainers: запись одиночных хитов POST /hit,
+ * пакетная запись POST /hits/bulk и чтение GET /stats без уникальности и с ней.
+ * Наследники задают хранилище (jpa - PostgreSQL, log - журнал хитов); в stats-server-reactive лежит такой же тест
+ * с той же нагрузкой, поэтому строки target/benchmarks/stats-server.csv обоих модулей сравнимы между собой.
+ * Запуск: mvn -Pbenchmark -pl stats/stats-server -am test
+ */
+@Slf4j
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+abstract class StatsLoadTestBase {
+
+    private static final int URIS = 100;
+    private static final int IPS = 1000;
+    private static final int HIT_CLIENTS = 100;
+    private static final int HITS_PER_CLIENT = 50;
+    private static final int BULK_HITS = 200_000;
+    private static final int STATS_CLIENTS = 50;
+    private static final int STATS_PER_CLIENT = 20;
+    // Диапазон короче stats.parallel.min-range: GET /stats идёт одним запросом, как и в реактивном варианте
+    private static final int DAYS = 7;
+    private static final LocalDateTime END = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final Path RESULTS = Path.of("target", "benchmarks", "stats-server.csv");
+    private static final String RESULTS_HEADER =
+            "variant,operation,requests,concurrency,throughput_rps,p50_ms,p99_ms,p999_ms";
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16.1")
+            .withUrlParam("reWriteBatchedInserts", "true");
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    protected abstract String variant();
+
+    @Test
+    void ingestAndStats() throws Exception {
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clients)
+                    .build();
+
+            LoadResult hits = load(httpClient, clients, HIT_CLIENTS, HITS_PER_CLIENT, number -> post("/hit",
+                    "application/json", hitJson(number)));
+            report("hit", hits);
+
+            StringBuilder ndjson = new StringBuilder();
+            for (int number = 0; number < BULK_HITS; number++) {
+                ndjson.append(hitJson(number)).append('\n');
+            }
+            HttpRequest bulkRequest = post("/hits/bulk", "application/x-ndjson", ndjson.toString());
+            long started = System.nanoTime();
+            HttpResponse<String> bulk = httpClient.send(bulkRequest, HttpResponse.BodyHandlers.ofString());
+            long elapsed = System.nanoTime() - started;
+            assertThat(bulk.statusCode()).as(bulk.body()).isEqualTo(201);
+            report("bulk", new LoadResult(1, BULK_HITS, new long[]{elapsed}, 0, elapsed));
+
+            String range = "start=" + encode(END.minusDays(DAYS).format(formatter))
+                    + "&end=" + encode(END.format(formatter));
+            for (boolean unique : new boolean[]{false, true}) {
+                HttpRequest statsRequest = HttpRequest.newBuilder(uri("/stats?" + range + "&unique=" + unique))
+                        .GET()
+                        .build();
+                report(unique ? "stats_unique" : "stats",
+                        load(httpClient, clients, STATS_CLIENTS, STATS_PER_CLIENT, number -> statsRequest));
+            }
+        }
+    }
+
+    private LoadResult load(HttpClient httpClient, ExecutorService clients, int concurrency, int requestsPerClient,
+                            IntFunction<HttpRequest> requests) throws Exception {
+        AtomicInteger errors = new AtomicInteger();
+        long[][] latencies = new long[concurrency][requestsPerClient];
+        List<Future<?>> futures = new ArrayList<>(concurrency);
+        long started = System.nanoTime();
+        for (int client = 0; client < concurrency; client++) {
+            int firstRequest = client * requestsPerClient;
+            long[] clientLatencies = latencies[client];
+            futures.add(clients.submit(() -> {
+                for (int i = 0; i < requestsPerClient; i++) {
+                    HttpRequest request = requests.apply(firstRequest + i);
+                    long requestStarted = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 300) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    clientLatencies[i] = System.nanoTime() - requestStarted;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        long[] sorted = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new LoadResult(concurrency, sorted.length, sorted, errors.get(), elapsed);
+    }
+
+    private void report(String operation, LoadResult result) throws IOException {
+        log.info("{} {}: {} requests, {} errors, {} rps, p50 {} ms, p99 {} ms, p99.9 {} ms", variant(), operation,
+                result.requests(), result.errors(), format(result.throughput()), format(result.percentileMillis(0.5)),
+                format(result.percentileMillis(0.99)), format(result.percentileMillis(0.999)));
+        Files.createDirectories(RESULTS.getParent());
+        if (!Files.exists(RESULTS)) {
+            Files.writeString(RESULTS, RESULTS_HEADER + System.lineSeparator());
+        }
+        String line = String.join(",", variant(), operation, String.valueOf(result.requests()),
+                String.valueOf(result.concurrency()), format(result.throughput()),
+                format(result.percentileMillis(0.5)), format(result.percentileMillis(0.99)),
+                format(result.percentileMillis(0.999)));
+        Files.writeString(RESULTS, line + System.lineSeparator(), StandardOpenOption.APPEND);
+        assertThat(result.errors()).isZero();
+    }
+
+    // Хиты детерминированы номером: uri и ip повторяются, время равномерно покрывает диапазон
+    private static String hitJson(int number) {
+        LocalDateTime timestamp = END.minusSeconds(1 + (long) number * 7 % (DAYS * 24 * 3600L - 1));
+        return "{\"app\":\"ewm-main-service\",\"uri\":\"/events/" + number % URIS + "\",\"ip\":\"10.0."
+                + number % IPS / 256 + "." + number % IPS % 256 + "\",\"timestamp\":\"" + timestamp.format(formatter)
+                + "\"}";
+    }
+
+    private HttpRequest post(String path, String contentType, String body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    /**
+     * @param requests число обработанных запросов, для пакетной записи - число хитов
+     */
+    private record LoadResult(int concurrency, int requests, long[] sortedLatencies, int errors, long elapsedNanos) {
+
+        double throughput() {
+            return requests * 1e9 / elapsedNanos;
+        }
+
+        double percentileMillis(double percentile) {
+            int index = Math.min(sortedLatencies.length - 1, (int) Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(index, 0)] / 1e6;
+        }
+    }
+}